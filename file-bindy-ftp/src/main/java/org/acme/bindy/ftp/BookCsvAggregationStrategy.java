@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+import org.apache.camel.RuntimeCamelException;
+import org.apache.camel.util.IOHelper;
+
+/**
+ * Aggregation strategy that appends the marshalled CSV bytes of each book to a file as they arrive. The body of the
+ * aggregated exchange is that {@link File}, so a completed genre group can be streamed straight to the FTP server
+ * without keeping the books in memory or marshalling them again.
+ */
+public class BookCsvAggregationStrategy implements AggregationStrategy {
+
+    private final Path directory;
+    private final Map<File, FileChannel> channels = new ConcurrentHashMap<>();
+
+    public BookCsvAggregationStrategy(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+        byte[] csv = newExchange.getMessage().getBody(byte[].class);
+
+        Exchange aggregated = oldExchange;
+        if (aggregated == null) {
+            aggregated = newExchange;
+            aggregated.getMessage().setBody(createFile());
+        }
+
+        append(aggregated.getMessage().getBody(File.class), csv);
+        return aggregated;
+    }
+
+    @Override
+    public void onCompletion(Exchange exchange) {
+        FileChannel channel = channels.remove(exchange.getMessage().getBody(File.class));
+        IOHelper.close(channel);
+    }
+
+    private File createFile() {
+        try {
+            Files.createDirectories(directory);
+            return Files.createTempFile(directory, "books-", ".csv").toFile();
+        } catch (IOException e) {
+            throw new RuntimeCamelException(e);
+        }
+    }
+
+    private void append(File file, byte[] csv) {
+        // Channels are kept open between aggregations and reopened lazily after a restart
+        FileChannel channel = channels.computeIfAbsent(file, this::openChannel);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(csv);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeCamelException(e);
+        }
+    }
+
+    private FileChannel openChannel(File file) {
+        try {
+            return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeCamelException(e);
+        }
+    }
+}
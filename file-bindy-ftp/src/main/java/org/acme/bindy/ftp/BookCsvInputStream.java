@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.acme.bindy.ftp.BookGenerator.BOOK_DESCRIPTION;
+import static org.acme.bindy.ftp.BookGenerator.BOOK_GENRES;
+import static org.acme.bindy.ftp.BookGenerator.FIRST_NAMES;
+import static org.acme.bindy.ftp.BookGenerator.LAST_NAMES;
+import static org.acme.bindy.ftp.BookGenerator.randomElement;
+
+/**
+ * {@link InputStream} that lazily renders random books in the same CSV format that Bindy produces for {@link Book}.
+ * Rows are rendered in batches as the stream is read, so that any number of books can be written without holding
+ * them in memory.
+ */
+public class BookCsvInputStream extends InputStream {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final int count;
+    private final int batchSize;
+    private final StringBuilder rows;
+    private int nextId;
+    private byte[] buffer = new byte[0];
+    private int position;
+
+    public BookCsvInputStream(int count, int batchSize) {
+        this.count = count;
+        this.batchSize = batchSize;
+        this.rows = new StringBuilder(batchSize * 64);
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int read = Math.min(len, buffer.length - position);
+        System.arraycopy(buffer, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return buffer.length - position;
+    }
+
+    private boolean fill() {
+        if (position < buffer.length) {
+            return true;
+        }
+        if (nextId >= count) {
+            return false;
+        }
+
+        Random random = ThreadLocalRandom.current();
+        int end = Math.min(count, nextId + batchSize);
+        rows.setLength(0);
+        for (; nextId < end; nextId++) {
+            String genre = randomElement(BOOK_GENRES, random);
+            rows.append(nextId).append(',')
+                    .append(randomElement(FIRST_NAMES, random)).append(' ').append(randomElement(LAST_NAMES, random))
+                    .append(",The ").append(randomElement(BOOK_DESCRIPTION, random)).append(" book of ").append(genre)
+                    .append(" #").append(nextId).append(',')
+                    .append(genre)
+                    .append(LINE_SEPARATOR);
+        }
+
+        buffer = rows.toString().getBytes(StandardCharsets.US_ASCII);
+        position = 0;
+        return true;
+    }
+}
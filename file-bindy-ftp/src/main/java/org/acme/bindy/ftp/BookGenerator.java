@@ -19,11 +19,13 @@ package org.acme.bindy.ftp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Named;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * Processor to generate {@Book}s with a random set of data.
@@ -32,9 +34,9 @@ import org.apache.camel.Processor;
 @Named
 public class BookGenerator implements Processor {
 
-    private static final String[] BOOK_GENRES = { "Action", "Crime", "Horror" };
+    static final String[] BOOK_GENRES = { "Action", "Crime", "Horror" };
 
-    private static final String[] BOOK_DESCRIPTION = {
+    static final String[] BOOK_DESCRIPTION = {
             "Awesome",
             "Amazing",
             "Fantastic",
@@ -42,7 +44,7 @@ public class BookGenerator implements Processor {
             "Tremendous",
     };
 
-    private static final String[] FIRST_NAMES = {
+    static final String[] FIRST_NAMES = {
             "Fyodor",
             "Jane",
             "Leo",
@@ -50,7 +52,7 @@ public class BookGenerator implements Processor {
             "William",
     };
 
-    private static final String[] LAST_NAMES = {
+    static final String[] LAST_NAMES = {
             "Austen",
             "Dostoevsky",
             "Shakespeare",
@@ -58,19 +60,43 @@ public class BookGenerator implements Processor {
             "Wilde",
     };
 
+    /**
+     * The number of books to generate on each run.
+     */
+    @ConfigProperty(name = "book.generator.count", defaultValue = "100")
+    int count;
+
+    /**
+     * When enabled, the books are rendered directly as a CSV {@link java.io.InputStream} instead of a {@link List} of
+     * {@link Book}s. This is intended for load testing with large record counts.
+     */
+    @ConfigProperty(name = "book.generator.streaming", defaultValue = "false")
+    boolean streaming;
+
+    /**
+     * The number of CSV rows rendered at a time when streaming.
+     */
+    @ConfigProperty(name = "book.generator.batch-size", defaultValue = "1000")
+    int batchSize;
+
     @Override
     public void process(Exchange exchange) throws Exception {
-        Random random = new Random();
-        List<Book> books = new ArrayList<>();
+        if (streaming) {
+            exchange.getMessage().setBody(new BookCsvInputStream(count, batchSize));
+            return;
+        }
 
-        for (int i = 0; i < 100; i++) {
-            String genre = BOOK_GENRES[random.nextInt(BOOK_GENRES.length)];
-            String description = BOOK_DESCRIPTION[random.nextInt(BOOK_DESCRIPTION.length)];
-            String title = String.format("The %s book of %s #%d", description, genre, i);
+        Random random = ThreadLocalRandom.current();
+        List<Book> books = new ArrayList<>(count);
 
-            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
-            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
-            String author = String.format("%s %s", firstName, lastName);
+        for (int i = 0; i < count; i++) {
+            String genre = randomElement(BOOK_GENRES, random);
+            String description = randomElement(BOOK_DESCRIPTION, random);
+            String title = "The " + description + " book of " + genre + " #" + i;
+
+            String firstName = randomElement(FIRST_NAMES, random);
+            String lastName = randomElement(LAST_NAMES, random);
+            String author = firstName + " " + lastName;
 
             Book book = new Book();
             book.setId(i);
@@ -82,4 +108,8 @@ public class BookGenerator implements Processor {
 
         exchange.getMessage().setBody(books);
     }
+
+    static String randomElement(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
 }
@@ -16,44 +16,93 @@
  */
 package org.acme.bindy.ftp;
 
-import org.apache.camel.Exchange;
+import java.nio.file.Paths;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Named;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.model.dataformat.BindyType;
-import org.apache.camel.processor.aggregate.GroupedBodyAggregationStrategy;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+@ApplicationScoped
 public class Routes extends RouteBuilder {
 
+    /**
+     * When enabled, book CSV files are read line by line and each record is unmarshalled on its own, so that memory use
+     * does not depend on the size of the file.
+     */
+    @ConfigProperty(name = "csv.streaming", defaultValue = "true")
+    boolean csvStreaming;
+
+    /**
+     * When enabled, the book generator renders CSV data directly instead of a list of books to marshal.
+     */
+    @ConfigProperty(name = "book.generator.streaming", defaultValue = "false")
+    boolean bookGeneratorStreaming;
+
+    /**
+     * The maximum number of books aggregated for a genre before the group is completed.
+     */
+    @ConfigProperty(name = "aggregation.completion.size", defaultValue = "1000")
+    int aggregationCompletionSize;
+
+    @ConfigProperty(name = "aggregation.repository.location")
+    String aggregationRepositoryLocation;
+
+    /**
+     * Persistent aggregation repository so that books aggregated for a genre are not lost on restart.
+     */
+    @Produces
+    @Named
+    BookAggregationRepository bookAggregationRepository() {
+        return new BookAggregationRepository(aggregationRepositoryLocation);
+    }
+
     @Override
     public void configure() throws Exception {
         // Generate some book objects with random data
-        from("timer:generateBooks?period={{timer.period}}&delay={{timer.delay}}")
+        RouteDefinition generator = from("timer:generateBooks?period={{timer.period}}&delay={{timer.delay}}")
                 .log("Generating randomized books CSV data")
-                .process("bookGenerator")
-                // Marshal each book to CSV format
-                .marshal().bindy(BindyType.Csv, Book.class)
-                // Write CSV data to file
-                .to("file:{{csv.location}}");
+                .process("bookGenerator");
+
+        if (!bookGeneratorStreaming) {
+            // Marshal each book to CSV format
+            generator.marshal().bindy(BindyType.Csv, Book.class);
+        }
+
+        // Write CSV data to a hidden temporary file so that it is not consumed before it is complete
+        generator.to("file:{{csv.location}}?tempPrefix=.inprogress-");
 
         // Consume book CSV files
-        from("file:{{csv.location}}?delay=1000")
-                .log("Reading books CSV data from ${header.CamelFileName}")
-                .unmarshal().bindy(BindyType.Csv, Book.class)
-                .split(body())
-                .to("direct:aggregateBooks");
+        RouteDefinition consumer = from("file:{{csv.location}}?delay=1000")
+                .log("Reading books CSV data from ${header.CamelFileName}");
+
+        if (csvStreaming) {
+            // Tokenize the file line by line and unmarshal each book record individually
+            consumer.split(body().tokenize("\n")).streaming()
+                    .unmarshal().bindy(BindyType.Csv, Book.class)
+                    .to("direct:aggregateBooks");
+        } else {
+            // Unmarshal the whole file to a list of books and split it afterwards
+            consumer.unmarshal().bindy(BindyType.Csv, Book.class)
+                    .split(body())
+                    .to("direct:aggregateBooks");
+        }
 
         // Aggregate books based on their genre
         from("direct:aggregateBooks")
                 .setHeader("BookGenre", simple("${body.genre}"))
-                .aggregate(simple("${body.genre}"), new GroupedBodyAggregationStrategy()).completionInterval(5000)
+                // Marshal each book to CSV format so that it can be appended to the file of its genre
+                .marshal().bindy(BindyType.Csv, Book.class)
+                .aggregate(header("BookGenre"),
+                        new BookCsvAggregationStrategy(Paths.get(aggregationRepositoryLocation, "buffers")))
+                .aggregationRepository("bookAggregationRepository")
+                .completionSize(aggregationCompletionSize)
+                .completionInterval(5000)
                 .log("Processed ${header.CamelAggregatedSize} books for genre '${header.BookGenre}'")
+                // Uploaded by UploadRoutes
                 .to("seda:processed");
-
-        from("seda:processed")
-                // Marshal books back to CSV format
-                .marshal().bindy(BindyType.Csv, Book.class)
-                .setHeader(Exchange.FILE_NAME, simple("books-${header.BookGenre}-${exchangeId}.csv"))
-                // Send aggregated book genre CSV files to an FTP host
-                .to("sftp://{{ftp.username}}@{{ftp.host}}:{{ftp.port}}/uploads/books?password={{ftp.password}}")
-                .log("Uploaded ${header.CamelFileName}");
     }
 }
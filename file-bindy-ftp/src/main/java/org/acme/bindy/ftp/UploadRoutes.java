@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+
+/**
+ * Uploads the genre files completed by the aggregation of {@link Routes} to the FTP host.
+ */
+public class UploadRoutes extends RouteBuilder {
+
+    @Override
+    public void configure() throws Exception {
+        // Upload genre files concurrently. Each consumer thread borrows a pooled SFTP producer that keeps its session
+        // open
+        from("seda:processed?concurrentConsumers={{ftp.upload.concurrency}}")
+                // The body is a file already holding the books of the genre in CSV format
+                .setHeader(Exchange.FILE_NAME, simple("books-${header.BookGenre}-${exchangeId}.csv"))
+                .to("micrometer:timer:org.acme.bindy.ftp.upload?action=start")
+                // Send aggregated book genre CSV files to an FTP host
+                .to("sftp://{{ftp.username}}@{{ftp.host}}:{{ftp.port}}/uploads/books?password={{ftp.password}}"
+                        + "&serverAliveInterval={{ftp.server-alive-interval}}")
+                .to("micrometer:timer:org.acme.bindy.ftp.upload?action=stop")
+                .log("Uploaded ${header.CamelFileName}")
+                .process(exchange -> Files.deleteIfExists(exchange.getMessage().getBody(File.class).toPath()));
+    }
+}
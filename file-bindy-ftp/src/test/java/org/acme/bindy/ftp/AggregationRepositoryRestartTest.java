@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AggregationRepositoryRestartTest {
+
+    private static final int COMPLETION_SIZE = 7;
+    // Each genre gets 16 or 17 books: two completed groups, and a pending group of 2 or 3 books
+    private static final int HALT_AFTER_ADDS = 50;
+
+    @TempDir
+    Path location;
+
+    @Test
+    public void pendingGroupsSurviveJvmKill() throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                AggregationRepositoryWriter.class.getName(), location.toString(), String.valueOf(COMPLETION_SIZE),
+                String.valueOf(HALT_AFTER_ADDS))
+                .inheritIO()
+                .start();
+        assertTrue(writer.waitFor(1, TimeUnit.MINUTES), "Writer JVM did not terminate");
+        assertEquals(0, writer.exitValue());
+
+        // The books of each genre that were added after its last completed group
+        Map<String, List<String>> pending = new HashMap<>();
+        for (int i = 0; i < HALT_AFTER_ADDS; i++) {
+            List<String> books = pending.computeIfAbsent(AggregationRepositoryWriter.genre(i), genre -> new ArrayList<>());
+            books.add(AggregationRepositoryWriter.book(i).trim());
+            if (books.size() == COMPLETION_SIZE) {
+                books.clear();
+            }
+        }
+        pending.values().removeIf(List::isEmpty);
+
+        CamelContext context = new DefaultCamelContext();
+        context.start();
+
+        BookAggregationRepository repository = new BookAggregationRepository(location.toString());
+        repository.start();
+        try {
+            // Completed and confirmed groups must not be emitted again
+            assertTrue(repository.scan(context).isEmpty());
+
+            assertEquals(pending.keySet(), repository.getKeys());
+            for (Map.Entry<String, List<String>> entry : pending.entrySet()) {
+                Exchange recovered = repository.get(context, entry.getKey());
+                assertEquals(entry.getKey(), recovered.getMessage().getHeader("BookGenre"));
+
+                List<String> books = Files.readAllLines(recovered.getMessage().getBody(File.class).toPath());
+                assertEquals(entry.getValue(), books);
+            }
+        } finally {
+            repository.stop();
+            context.stop();
+        }
+    }
+}
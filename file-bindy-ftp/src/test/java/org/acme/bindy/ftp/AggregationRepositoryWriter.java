@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+
+/**
+ * Aggregates books into a {@link BookAggregationRepository}, completing and confirming each genre group once it holds
+ * {@code completionSize} books as the aggregator does, and halts the JVM without any clean shutdown right after the
+ * {@code haltAfterAdds}th book was added, to simulate a crash in the middle of the aggregations.
+ */
+public final class AggregationRepositoryWriter {
+
+    static final String[] GENRES = { "Action", "Crime", "Horror" };
+
+    private AggregationRepositoryWriter() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String location = args[0];
+        int completionSize = Integer.parseInt(args[1]);
+        int haltAfterAdds = Integer.parseInt(args[2]);
+
+        CamelContext context = new DefaultCamelContext();
+        context.start();
+
+        BookAggregationRepository repository = new BookAggregationRepository(location);
+        repository.start();
+
+        BookCsvAggregationStrategy strategy = new BookCsvAggregationStrategy(Paths.get(location, "buffers"));
+        Map<String, Integer> groupSizes = new HashMap<>();
+        for (int i = 0; i < haltAfterAdds; i++) {
+            String genre = genre(i);
+            String csv = book(i);
+
+            Exchange exchange = new DefaultExchange(context);
+            exchange.getMessage().setHeader("BookGenre", genre);
+            exchange.getMessage().setBody(csv.getBytes(StandardCharsets.UTF_8));
+            Exchange aggregated = strategy.aggregate(repository.get(context, genre), exchange);
+            repository.add(context, genre, aggregated);
+
+            if (groupSizes.merge(genre, 1, Integer::sum) == completionSize) {
+                groupSizes.remove(genre);
+                strategy.onCompletion(aggregated);
+                repository.remove(context, genre, aggregated);
+                repository.confirm(context, aggregated.getExchangeId());
+            }
+        }
+
+        Runtime.getRuntime().halt(0);
+    }
+
+    static String genre(int book) {
+        return GENRES[book % GENRES.length];
+    }
+
+    static String book(int book) {
+        String genre = genre(book);
+        return book + ",Leo Tolstoy,The Persistent book of " + genre + " #" + book + "," + genre + "\r\n";
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import org.apache.camel.util.CollectionHelper;
+import org.apache.commons.io.FileUtils;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.sftp.server.FileHandle;
+import org.apache.sshd.sftp.server.Handle;
+import org.apache.sshd.sftp.server.SftpEventListener;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+
+/**
+ * Runs an in-process Apache MINA SSHD SFTP server, which records the highest number of files being uploaded at once.
+ * That number is injected into the {@link AtomicInteger} fields of the test. Each upload is held open for a short
+ * while, so that concurrent uploads do overlap.
+ */
+public class EmbeddedSftpTestResource implements QuarkusTestResourceLifecycleManager {
+
+    private static final String FTP_USER = "ftpuser";
+    private static final String FTP_PASSWORD = "ftppassword";
+
+    private static final long UPLOAD_DELAY_MILLIS = 20;
+
+    private final AtomicInteger uploadsInFlight = new AtomicInteger();
+    private final AtomicInteger maxUploadsInFlight = new AtomicInteger();
+    private SshServer server;
+    private Path root;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            FileUtils.deleteDirectory(Paths.get(System.getProperty("java.io.tmpdir"), "books").toFile());
+
+            root = Files.createTempDirectory("sftp-root");
+            Path hostKey = Files.createTempDirectory("sftp-host-key").resolve("hostkey.ser");
+
+            server = SshServer.setUpDefaultServer();
+            server.setHost("localhost");
+            server.setPort(0);
+            server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(hostKey));
+            server.setPasswordAuthenticator(
+                    (username, password, session) -> FTP_USER.equals(username) && FTP_PASSWORD.equals(password));
+            SftpSubsystemFactory sftp = new SftpSubsystemFactory();
+            sftp.addSftpEventListener(new SftpEventListener() {
+                @Override
+                public void open(ServerSession session, String remoteHandle, Handle localHandle) {
+                    if (localHandle instanceof FileHandle) {
+                        maxUploadsInFlight.accumulateAndGet(uploadsInFlight.incrementAndGet(), Math::max);
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(UPLOAD_DELAY_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+
+                @Override
+                public void closed(ServerSession session, String remoteHandle, Handle localHandle, Throwable thrown) {
+                    if (localHandle instanceof FileHandle) {
+                        uploadsInFlight.decrementAndGet();
+                    }
+                }
+            });
+            server.setSubsystemFactories(List.of(sftp));
+            server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+            server.start();
+
+            return CollectionHelper.mapOf(
+                    "ftp.host", "localhost",
+                    "ftp.port", String.valueOf(server.getPort()),
+                    "sftp.root", root.toString(),
+                    // Keep the book generator out of the way of the uploads of the test
+                    "timer.delay", "600000");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Starts after the global {@link FtpTestResource}, so that the SFTP server address of this resource wins for the
+     * test classes it is restricted to.
+     */
+    @Override
+    public int order() {
+        return 100;
+    }
+
+    @Override
+    public void inject(TestInjector testInjector) {
+        testInjector.injectIntoFields(maxUploadsInFlight, new TestInjector.MatchesType(AtomicInteger.class));
+    }
+
+    @Override
+    public void stop() {
+        try {
+            if (server != null) {
+                server.stop(true);
+            }
+            if (root != null) {
+                FileUtils.deleteDirectory(root.toFile());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(FtpTestResource.class)
+public class LargeFileStreamingTest {
+
+    private static final int BOOK_COUNT = 1_000_000;
+
+    @Test
+    public void heapStaysBoundedForLargeFile() throws Exception {
+        Path csvDir = Paths.get(System.getProperty("java.io.tmpdir"), "books");
+        Files.createDirectories(csvDir);
+
+        // Write the file outside of the consumer directory first so that it is not picked up half written
+        Path largeFile = Files.createTempFile("large-books", ".csv");
+        String[] genres = { "Action", "Crime", "Horror" };
+        try (BufferedWriter writer = Files.newBufferedWriter(largeFile)) {
+            for (int i = 0; i < BOOK_COUNT; i++) {
+                String genre = genres[i % genres.length];
+                writer.write(i + ",Leo Tolstoy,The Large book of " + genre + " #" + i + "," + genre + "\r\n");
+            }
+        }
+        long fileSize = Files.size(largeFile);
+
+        long baseline = retainedHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+
+        // Only the live set matters: garbage left behind by the split must not count as retained
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleWithFixedDelay(() -> peak.accumulateAndGet(retainedHeap(), Math::max), 0, 500,
+                TimeUnit.MILLISECONDS);
+        try {
+            Path target = csvDir.resolve("large-books.csv");
+            Files.move(largeFile, target, StandardCopyOption.REPLACE_EXISTING);
+
+            // The file consumer moves the file to the .camel directory once all of its records have been split
+            await().atMost(5L, TimeUnit.MINUTES).pollDelay(1, TimeUnit.SECONDS).until(() -> !Files.exists(target));
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        long growth = peak.get() - baseline;
+        // Holding the lines of the file, or the books parsed from them, would retain more than half of its size
+        assertTrue(growth < fileSize / 2,
+                "Retained heap grew by " + growth + " bytes while streaming a " + fileSize + " byte file");
+    }
+
+    /**
+     * Returns the heap still in use after a full collection, as reported by the heap pools.
+     */
+    private static long retainedHeap() {
+        System.gc();
+        long retained = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                retained += usage.getUsed();
+            }
+        }
+        return retained;
+    }
+}
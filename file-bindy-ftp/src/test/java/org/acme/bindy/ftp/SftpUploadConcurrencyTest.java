@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import jakarta.inject.Inject;
+import org.apache.camel.ProducerTemplate;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uploads files through the concurrent upload stage, with the {@code ftp.upload.concurrency} of the test profile of
+ * each subclass, and checks that every file arrives with at most that many uploads in flight at once. Upload
+ * throughput is measured by the benchmarks, not here.
+ */
+public abstract class SftpUploadConcurrencyTest {
+
+    private static final int FILE_COUNT = 100;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    ProducerTemplate producerTemplate;
+
+    // Injected by EmbeddedSftpTestResource
+    AtomicInteger maxUploadsInFlight;
+
+    @Test
+    public void uploadsRunConcurrentlyUpToTheConfiguredLimit() throws Exception {
+        Config config = ConfigProvider.getConfig();
+        Path uploads = Paths.get(config.getValue("sftp.root", String.class), "uploads", "books");
+        int concurrency = config.getValue("ftp.upload.concurrency", Integer.class);
+
+        Path directory = Files.createTempDirectory("concurrent");
+        for (int i = 0; i < FILE_COUNT; i++) {
+            Path file = Files.writeString(directory.resolve("concurrent-" + i + ".csv"),
+                    i + ",Leo Tolstoy,The Concurrent book of Concurrency #" + i + ",Concurrency\r\n");
+            producerTemplate.sendBodyAndHeaders("seda:processed", file.toFile(), Map.of("BookGenre", "Concurrency"));
+        }
+
+        await().atMost(2L, TimeUnit.MINUTES).pollInterval(10, TimeUnit.MILLISECONDS)
+                .until(() -> countFiles(uploads, "books-Concurrency-") == FILE_COUNT);
+
+        int maxInFlight = maxUploadsInFlight.get();
+        assertTrue(maxInFlight <= concurrency, maxInFlight + " uploads were in flight at once");
+        if (concurrency > 1) {
+            assertTrue(maxInFlight > 1, "The uploads never overlapped");
+        }
+
+        Timer uploadTimer = registry.find("org.acme.bindy.ftp.upload").timer();
+        assertNotNull(uploadTimer);
+        assertTrue(uploadTimer.count() >= FILE_COUNT);
+    }
+
+    private static long countFiles(Path directory, String prefix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+
+    public static class ConcurrencyProfile implements QuarkusTestProfile {
+        private final int concurrency;
+
+        protected ConcurrencyProfile(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("ftp.upload.concurrency", String.valueOf(concurrency));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.bindy.ftp.Book;
+import org.acme.bindy.ftp.BookCsvInputStream;
+import org.apache.camel.CamelContext;
+import org.apache.camel.dataformat.bindy.csv.BindyCsvDataFormat;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures marshal and unmarshal throughput of the {@link Book} model with Bindy and with a hand written
+ * {@link BookCsvCodec}. Run it with the {@code benchmark} profile, whose default {@code -prof gc} also reports the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookCsvBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    int records;
+
+    private CamelContext context;
+    private BindyCsvDataFormat bindy;
+    private byte[] csv;
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new DefaultCamelContext();
+        context.start();
+
+        bindy = new BindyCsvDataFormat(Book.class);
+        bindy.setCamelContext(context);
+        bindy.start();
+
+        try (BookCsvInputStream inputStream = new BookCsvInputStream(records, 1000)) {
+            csv = inputStream.readAllBytes();
+        }
+        books = BookCsvCodec.unmarshal(new ByteArrayInputStream(csv));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bindy.stop();
+        context.stop();
+    }
+
+    @Benchmark
+    public byte[] bindyMarshal() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(csv.length);
+        bindy.marshal(new DefaultExchange(context), books, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public Object bindyUnmarshal() throws Exception {
+        return bindy.unmarshal(new DefaultExchange(context), new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    public byte[] codecMarshal() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(csv.length);
+        BookCsvCodec.marshal(books, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public List<Book> codecUnmarshal() throws Exception {
+        return BookCsvCodec.unmarshal(new ByteArrayInputStream(csv));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.bindy.ftp.Book;
+
+/**
+ * Hand written CSV codec for {@link Book}, producing the same format as Bindy. It serves as the baseline that Bindy is
+ * compared against in {@link BookCsvBenchmark}.
+ */
+public final class BookCsvCodec {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private BookCsvCodec() {
+    }
+
+    public static void marshal(List<Book> books, OutputStream outputStream) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        for (Book book : books) {
+            writer.write(Integer.toString(book.getId()));
+            writer.write(',');
+            writer.write(book.getAuthor());
+            writer.write(',');
+            writer.write(book.getTitle());
+            writer.write(',');
+            writer.write(book.getGenre());
+            writer.write(LINE_SEPARATOR);
+        }
+        writer.flush();
+    }
+
+    public static List<Book> unmarshal(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        List<Book> books = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            int authorStart = line.indexOf(',') + 1;
+            int titleStart = line.indexOf(',', authorStart) + 1;
+            int genreStart = line.indexOf(',', titleStart) + 1;
+
+            Book book = new Book();
+            book.setId(Integer.parseInt(line, 0, authorStart - 1, 10));
+            book.setAuthor(line.substring(authorStart, titleStart - 1));
+            book.setTitle(line.substring(titleStart, genreStart - 1));
+            book.setGenre(line.substring(genreStart));
+            books.add(book);
+        }
+        return books;
+    }
+}
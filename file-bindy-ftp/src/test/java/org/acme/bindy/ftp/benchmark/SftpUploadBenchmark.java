@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.bindy.ftp.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.bindy.ftp.UploadRoutes;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.NotifyBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.commons.io.FileUtils;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many genre files per second the upload route of {@link UploadRoutes} uploads to an in-process SFTP
+ * server, from its {@code seda} stage through the {@code sftp} producer, for each {@code ftp.upload.concurrency}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SftpUploadBenchmark {
+
+    private static final int FILES_PER_INVOCATION = 64;
+    private static final String FTP_USER = "ftpuser";
+    private static final String FTP_PASSWORD = "ftppassword";
+
+    @Param({ "1", "2", "4", "8" })
+    String concurrency;
+
+    private Path root;
+    private Path genreFiles;
+    private SshServer server;
+    private CamelContext context;
+    private ProducerTemplate producerTemplate;
+    private byte[] csv;
+    private List<Path> files;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // The forked JVM inherits the JBoss LogManager from the benchmark profile, the upload route logs every file
+        java.util.logging.Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+
+        root = Files.createTempDirectory("sftp-benchmark");
+        genreFiles = Files.createTempDirectory("sftp-benchmark-genres");
+
+        server = SshServer.setUpDefaultServer();
+        server.setHost("localhost");
+        server.setPort(0);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(root.resolveSibling(root.getFileName() + ".ser")));
+        server.setPasswordAuthenticator(
+                (username, password, session) -> FTP_USER.equals(username) && FTP_PASSWORD.equals(password));
+        server.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+        server.start();
+
+        context = new DefaultCamelContext();
+        Properties properties = new Properties();
+        properties.setProperty("ftp.host", "localhost");
+        properties.setProperty("ftp.port", String.valueOf(server.getPort()));
+        properties.setProperty("ftp.username", FTP_USER);
+        properties.setProperty("ftp.password", FTP_PASSWORD);
+        properties.setProperty("ftp.server-alive-interval", "30000");
+        properties.setProperty("ftp.upload.concurrency", concurrency);
+        context.getPropertiesComponent().setInitialProperties(properties);
+        context.addRoutes(new UploadRoutes());
+        context.start();
+        producerTemplate = context.createProducerTemplate();
+
+        StringBuilder books = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            books.append(i).append(",Leo Tolstoy,The Uploaded book of Action #").append(i).append(",Action\r\n");
+        }
+        csv = books.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the genre files of the next invocation, which the upload route deletes once they are uploaded.
+     */
+    @Setup(Level.Invocation)
+    public void writeGenreFiles() throws IOException {
+        files = new ArrayList<>(FILES_PER_INVOCATION);
+        for (int i = 0; i < FILES_PER_INVOCATION; i++) {
+            files.add(Files.write(genreFiles.resolve("genre-" + i + ".csv"), csv));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteUploads() throws IOException {
+        // The upload directory itself is kept, as the SFTP producer created it
+        FileUtils.cleanDirectory(root.resolve("uploads").resolve("books").toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.stop();
+        server.stop(true);
+        FileUtils.deleteDirectory(root.toFile());
+        FileUtils.deleteDirectory(genreFiles.toFile());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES_PER_INVOCATION)
+    public void upload() throws Exception {
+        NotifyBuilder uploaded = new NotifyBuilder(context).from("seda:processed*")
+                .whenCompleted(FILES_PER_INVOCATION).create();
+        try {
+            for (Path file : files) {
+                producerTemplate.sendBodyAndHeaders("seda:processed", file.toFile(), Map.of("BookGenre", "Action"));
+            }
+            if (!uploaded.matches(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("The genre files were not uploaded within a minute");
+            }
+        } finally {
+            uploaded.destroy();
+        }
+    }
+}
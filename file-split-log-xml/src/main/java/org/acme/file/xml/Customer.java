@@ -16,5 +16,16 @@
  */
 package org.acme.file.xml;
 
-public class DummyClass {
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * A row of the customer list. The original row is kept so that it can still be logged as it was read.
+ */
+@RegisterForReflection
+public record Customer(String row, String name, String surname) {
+
+    @Override
+    public String toString() {
+        return row;
+    }
 }
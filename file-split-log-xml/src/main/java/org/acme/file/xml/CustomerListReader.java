@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.file.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Scanner;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Named;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Splits the customer list file into lines for the {@code file-xml-route}.
+ */
+@ApplicationScoped
+@Named
+@RegisterForReflection
+public class CustomerListReader {
+
+    /**
+     * When enabled, the file is memory mapped and lines are decoded straight from the mapped regions instead of being
+     * read through a {@link Scanner}.
+     */
+    @ConfigProperty(name = "camel.file.split.memory-mapped", defaultValue = "false")
+    boolean memoryMapped;
+
+    public Iterator<String> lines(File file) throws IOException {
+        if (memoryMapped) {
+            return new MappedLineIterator(file.toPath());
+        }
+        return new Scanner(file, StandardCharsets.UTF_8).useDelimiter("\n");
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.file.xml;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Named;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+
+/**
+ * Parses a {@code name,surname} row into a {@link Customer} in a single pass, without creating an exchange per column.
+ */
+@ApplicationScoped
+@Named
+public class CustomerParser implements Processor {
+
+    @Override
+    public void process(Exchange exchange) throws Exception {
+        String row = exchange.getMessage().getBody(String.class);
+        exchange.getMessage().setBody(parse(row));
+    }
+
+    public static Customer parse(String row) {
+        int separator = row.indexOf(',');
+        if (separator < 0) {
+            return new Customer(row, row, null);
+        }
+        return new Customer(row, row.substring(0, separator), row.substring(separator + 1));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.file.xml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the lines of a file by memory mapping it region by region. Each line is only decoded to a
+ * {@link String} when it is requested, so the file content is never copied into a single body.
+ */
+public class MappedLineIterator implements Iterator<String>, Closeable {
+
+    private static final int REGION_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+
+    public MappedLineIterator(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < size;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            int regionSize = REGION_SIZE;
+            while (true) {
+                if (region == null || position >= regionStart + region.limit()) {
+                    map(position, regionSize);
+                }
+
+                int start = (int) (position - regionStart);
+                int end = start;
+                while (end < region.limit() && region.get(end) != '\n') {
+                    end++;
+                }
+
+                boolean endOfFile = regionStart + end == size;
+                if (end < region.limit() || endOfFile) {
+                    byte[] line = new byte[end - start];
+                    region.get(start, line);
+                    // Skip the line separator
+                    position = regionStart + end + 1;
+                    return new String(line, StandardCharsets.UTF_8);
+                }
+
+                // The line crosses the end of the mapped region, map again from the start of the line
+                if (start == 0) {
+                    regionSize *= 2;
+                }
+                map(position, regionSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+
+    private void map(long start, int regionSize) throws IOException {
+        regionStart = start;
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.file.xml;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Named;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangeProperty;
+
+/**
+ * Numbers the rows of all files split by the route in one sequence, for the stream resequencer that is shared by all of
+ * them. A file's rows are numbered from the one following the last row of the previous file, so that two files never
+ * have rows with the same number. The file consumer splits one file at a time, so the previous file is fully numbered
+ * when the next one starts.
+ */
+@ApplicationScoped
+@Named
+public class RowSequence {
+
+    private final AtomicLong last = new AtomicLong(-1);
+    private volatile long fileStart;
+
+    public void startFile() {
+        fileStart = last.get() + 1;
+    }
+
+    public long sequence(@ExchangeProperty(Exchange.SPLIT_INDEX) int splitIndex) {
+        long sequence = fileStart + splitIndex;
+        last.accumulateAndGet(sequence, Math::max);
+        return sequence;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.file.xml;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.apache.camel.CamelContext;
+import org.apache.camel.spi.InflightRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(value = LargeFileTestResource.class, restrictToAnnotatedClass = true)
+public class LargeFileSplitTest {
+
+    private static final long MAX_RETAINED_HEAP_GROWTH_BYTES = 128L * 1024 * 1024;
+
+    @Inject
+    CamelContext context;
+
+    @Test
+    public void heapStaysBoundedForLargeFile() {
+        long baseline = retainedHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+
+        // Only the live set matters: the rows already logged are garbage and must not count as retained
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleWithFixedDelay(() -> peak.accumulateAndGet(retainedHeap(), Math::max), 0, 500,
+                TimeUnit.MILLISECONDS);
+        try {
+            InflightRepository inflight = context.getInflightRepository();
+            // The file consumer starts after its initial delay and the route is done once nothing is in flight anymore
+            await().atMost(30L, TimeUnit.SECONDS).until(() -> inflight.size("file-xml-route") > 0);
+            await().atMost(10L, TimeUnit.MINUTES).pollInterval(1, TimeUnit.SECONDS)
+                    .until(() -> inflight.size("file-xml-route") == 0);
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        long growth = peak.get() - baseline;
+        assertTrue(growth < MAX_RETAINED_HEAP_GROWTH_BYTES,
+                "Retained heap grew by " + growth + " bytes while splitting " + LargeFileTestResource.LINE_COUNT
+                        + " lines");
+    }
+
+    /**
+     * Returns the heap still in use after a full collection, as reported by the heap pools.
+     */
+    private static long retainedHeap() {
+        System.gc();
+        long retained = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                retained += usage.getUsed();
+            }
+        }
+        return retained;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.file.xml;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+/**
+ * Writes a customer list and points the file route at it. The list has a million lines by default, run the tests with
+ * {@code -Dlarge-file.lines=20000000} to split a file of several hundred MB instead.
+ */
+public class LargeFileTestResource implements QuarkusTestResourceLifecycleManager {
+
+    static final long LINE_COUNT = Long.getLong("large-file.lines", 1_000_000);
+
+    private static final Path FOLDER = Paths.get("target/large-file");
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            Files.createDirectories(FOLDER);
+            try (BufferedWriter writer = Files.newBufferedWriter(FOLDER.resolve("customerlist.csv"))) {
+                writer.write("name,surname\n");
+                for (long i = 0; i < LINE_COUNT; i++) {
+                    writer.write("Name" + i + ",SURNAME" + i + "\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return Map.of(
+                "camel.file.route.folder", FOLDER.toString(),
+                // Read the file only once
+                "camel.file.repeat.interval", "3600000",
+                "camel.file.split.parallel", "true",
+                // Formatting millions of log messages would dominate the test run
+                "quarkus.log.category.\"row-route\".level", "WARN");
+    }
+
+    @Override
+    public void stop() {
+        try {
+            Files.deleteIfExists(FOLDER.resolve("customerlist.csv"));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
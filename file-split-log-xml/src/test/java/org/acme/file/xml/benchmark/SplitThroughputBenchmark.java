@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.file.xml.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.file.xml.CustomerListReader;
+import org.acme.file.xml.CustomerParser;
+import org.acme.file.xml.RowSequence;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Route;
+import org.apache.camel.ThreadPoolRejectedPolicy;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.support.PluginHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many customer list lines per second the {@code file-xml-route} splits in parallel, with a thread pool of
+ * 1, 4 or all available cores ({@code threads = 0}). The log output is disabled, so that the split overhead is measured
+ * rather than the console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SplitThroughputBenchmark {
+
+    private static final int LINES = 100_000;
+
+    @Param({ "1", "4", "0" })
+    int threads;
+
+    private Path folder;
+    private Path customerList;
+    private CamelContext context;
+    private Route route;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // The forked JVM inherits the JBoss LogManager from the benchmark profile, the row route logs every line
+        java.util.logging.Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+
+        folder = Files.createTempDirectory("split-benchmark");
+        customerList = Files.createTempFile("customerlist", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(customerList)) {
+            writer.write("name,surname\n");
+            for (int i = 0; i < LINES; i++) {
+                writer.write("Name" + i + ",SURNAME" + i + "\n");
+            }
+        }
+
+        int poolSize = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+
+        context = new DefaultCamelContext();
+        ThreadPoolProfile profile = context.getExecutorServiceManager().getDefaultThreadPoolProfile();
+        profile.setPoolSize(poolSize);
+        profile.setMaxPoolSize(poolSize);
+        profile.setMaxQueueSize(1000);
+        profile.setRejectedPolicy(ThreadPoolRejectedPolicy.CallerRuns);
+
+        Properties properties = new Properties();
+        // The file consumer polls an empty folder, the benchmark hands the customer list to the route itself
+        properties.setProperty("camel.file.route.folder", folder.toString());
+        properties.setProperty("camel.file.repeat.interval", "3600000");
+        properties.setProperty("camel.file.split.parallel", "true");
+        properties.setProperty("camel.file.split.streaming", "true");
+        properties.setProperty("camel.file.split.ordered", "false");
+        properties.setProperty("camel.file.split.ordered.capacity", "1000");
+        properties.setProperty("camel.file.split.ordered.timeout", "100");
+        context.getPropertiesComponent().setInitialProperties(properties);
+
+        context.getRegistry().bind("customerListReader", new CustomerListReader());
+        context.getRegistry().bind("customerParser", new CustomerParser());
+        context.getRegistry().bind("rowSequence", new RowSequence());
+        PluginHelper.getRoutesLoader(context)
+                .loadRoutes(PluginHelper.getResourceLoader(context).resolveResource("classpath:routes/camel-routes.xml"));
+        context.start();
+
+        route = context.getRoute("file-xml-route");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.stop();
+        Files.deleteIfExists(customerList);
+        Files.deleteIfExists(folder);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public Exchange split() throws Exception {
+        Exchange exchange = route.getEndpoint().createExchange();
+        exchange.getMessage().setBody(customerList.toFile());
+        route.getProcessor().process(exchange);
+        return exchange;
+    }
+}
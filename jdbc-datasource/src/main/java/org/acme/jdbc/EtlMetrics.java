@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jdbc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.apache.camel.Exchange;
+
+/**
+ * Micrometer meters of the ETL routes, all named after a common prefix:
+ * <ul>
+ * <li>{@code <prefix>.rows.extracted}, {@code <prefix>.rows.transformed} and {@code <prefix>.rows.loaded} count the
+ * rows going through each phase</li>
+ * <li>{@code <prefix>.phase} times each batch in the {@code extract}, {@code transform} and {@code load} phases, the
+ * extract time of a batch being the time spent fetching its rows from the source cursor</li>
+ * <li>{@code <prefix>.batch.size} records the number of rows of each batch</li>
+ * <li>{@code <prefix>.run} times the complete runs and {@code <prefix>.last.run.duration} holds the duration of the
+ * last one</li>
+ * </ul>
+ * The phase timers rely on a per partition clock stored in an exchange property, which the split batches share with
+ * their partition exchange.
+ */
+public class EtlMetrics {
+
+    private static final String RUN_START = "EtlRunStart";
+    private static final String PHASE_CLOCK = "EtlPhaseClock";
+
+    private final Counter rowsExtracted;
+    private final Counter rowsTransformed;
+    private final Counter rowsLoaded;
+    private final Timer extractTimer;
+    private final Timer transformTimer;
+    private final Timer loadTimer;
+    private final DistributionSummary batchSize;
+    private final Timer runTimer;
+    private final AtomicLong lastRunDuration = new AtomicLong();
+
+    public EtlMetrics(MeterRegistry registry, String prefix) {
+        rowsExtracted = Counter.builder(prefix + ".rows.extracted").register(registry);
+        rowsTransformed = Counter.builder(prefix + ".rows.transformed").register(registry);
+        rowsLoaded = Counter.builder(prefix + ".rows.loaded").register(registry);
+        extractTimer = phaseTimer(registry, prefix, "extract");
+        transformTimer = phaseTimer(registry, prefix, "transform");
+        loadTimer = phaseTimer(registry, prefix, "load");
+        batchSize = DistributionSummary.builder(prefix + ".batch.size")
+                .publishPercentileHistogram()
+                .register(registry);
+        runTimer = Timer.builder(prefix + ".run").register(registry);
+        TimeGauge.builder(prefix + ".last.run.duration", lastRunDuration, TimeUnit.NANOSECONDS, AtomicLong::doubleValue)
+                .register(registry);
+    }
+
+    public void runStarted(Exchange exchange) {
+        exchange.setProperty(RUN_START, System.nanoTime());
+    }
+
+    public void runCompleted(Exchange exchange) {
+        long duration = System.nanoTime() - exchange.getProperty(RUN_START, Long.class);
+        runTimer.record(duration, TimeUnit.NANOSECONDS);
+        lastRunDuration.set(duration);
+    }
+
+    public void extractStarted(Exchange exchange) {
+        exchange.setProperty(PHASE_CLOCK, new AtomicLong(System.nanoTime()));
+    }
+
+    public void batchExtracted(Exchange exchange) {
+        int rows = exchange.getIn().getBody(List.class).size();
+        extractTimer.record(lap(exchange), TimeUnit.NANOSECONDS);
+        rowsExtracted.increment(rows);
+        batchSize.record(rows);
+    }
+
+    public void batchTransformed(Exchange exchange) {
+        transformTimer.record(lap(exchange), TimeUnit.NANOSECONDS);
+        rowsTransformed.increment(exchange.getIn().getBody(List.class).size());
+    }
+
+    public void batchLoaded(Exchange exchange) {
+        loadTimer.record(lap(exchange), TimeUnit.NANOSECONDS);
+        rowsLoaded.increment(exchange.getIn().getBody(List.class).size());
+    }
+
+    /**
+     * Returns the time elapsed since the end of the previous phase of the partition and restarts its clock.
+     */
+    private static long lap(Exchange exchange) {
+        long now = System.nanoTime();
+        return now - exchange.getProperty(PHASE_CLOCK, AtomicLong.class).getAndSet(now);
+    }
+
+    private static Timer phaseTimer(MeterRegistry registry, String prefix, String phase) {
+        return Timer.builder(prefix + ".phase").tag("phase", phase).register(registry);
+    }
+}
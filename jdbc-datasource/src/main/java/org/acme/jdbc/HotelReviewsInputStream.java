@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link InputStream} that renders the rows of a {@link ResultSet} over the {@code Target} table as a JSON array while
+ * it is read, so that the reviews are written to the client without being held in memory. The connection, statement
+ * and result set are released as soon as the last row has been read, when the stream is closed, or on the first error.
+ */
+public class HotelReviewsInputStream extends InputStream {
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final int rowsPerChunk;
+    private final StringBuilder rows;
+    private boolean firstRow = true;
+    private boolean closed;
+    private byte[] buffer = new byte[0];
+    private int position;
+
+    public HotelReviewsInputStream(Connection connection, PreparedStatement statement, ResultSet resultSet,
+            int rowsPerChunk) {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.rowsPerChunk = rowsPerChunk;
+        this.rows = new StringBuilder(rowsPerChunk * 64);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int read = Math.min(len, buffer.length - position);
+        System.arraycopy(buffer, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return buffer.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (Connection c = connection; PreparedStatement s = statement; ResultSet r = resultSet) {
+            // The cursor only lives in the read-only transaction opened by JdbcService
+            c.rollback();
+            c.setReadOnly(false);
+            c.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (position < buffer.length) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+
+        rows.setLength(0);
+        if (firstRow) {
+            rows.append('[');
+        }
+        try {
+            int read = 0;
+            while (read < rowsPerChunk && resultSet.next()) {
+                if (!firstRow) {
+                    rows.append(',');
+                }
+                firstRow = false;
+                rows.append("{\"id\":").append(resultSet.getLong("id"))
+                        .append(",\"hotel_name\":");
+                appendJsonString(rows, resultSet.getString("hotel_name"));
+                BigDecimal review = resultSet.getBigDecimal("review");
+                rows.append(",\"review\":").append(review == null ? "null" : review.toPlainString())
+                        .append('}');
+                read++;
+            }
+            if (read < rowsPerChunk) {
+                // Every row has been read, give the connection back to the pool before the last bytes are written
+                rows.append(']');
+                close();
+            }
+        } catch (SQLException e) {
+            try {
+                close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new IOException(e);
+        }
+
+        buffer = rows.toString().getBytes(StandardCharsets.UTF_8);
+        position = 0;
+        return buffer.length > 0;
+    }
+
+    static void appendJsonString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -16,10 +16,15 @@
  */
 package org.acme.jdbc;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
+import io.micrometer.core.instrument.Metrics;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.RouteDefinition;
 
 public class JdbcRoutes extends RouteBuilder {
     @Override
@@ -30,23 +35,120 @@ public class JdbcRoutes extends RouteBuilder {
         reviewMapping.put("good", 0);
         reviewMapping.put("worst", -1);
 
+        // Number of transformed rows inserted into the target database with a single JDBC batch
+        String batchSize = getCamelContext().resolvePropertyPlaceholders("{{etl.load.batch-size}}");
+
+        // Either reload the whole Source table or only the rows changed since the previous run
+        boolean incremental = "incremental".equals(getCamelContext().resolvePropertyPlaceholders("{{etl.mode}}"));
+
+        // Number of id ranges the Source table is split into, each one being extracted, transformed and loaded by its
+        // own worker thread with its own source and target connections
+        int partitions = Integer.parseInt(getCamelContext().resolvePropertyPlaceholders("{{etl.partitions}}"));
+        ExecutorService partitionWorkers = getCamelContext().getExecutorServiceManager()
+                .newFixedThreadPool(this, "EtlPartitionWorker", partitions);
+
+        // Meters of the ETL runs, registered in the global registry that Quarkus exports
+        EtlMetrics metrics = new EtlMetrics(Metrics.globalRegistry,
+                getCamelContext().resolvePropertyPlaceholders("{{etl.metrics.prefix}}"));
+
         from("timer://insertCamel?delay={{etl.timer.delay}}&period={{etl.timer.period}}&repeatCount={{etl.timer.repeatcount}}")
-                .setBody().simple("DELETE FROM Target")
-                .to("jdbc:target_db")
-                .setBody().simple("SELECT * FROM Source")
-                .to("jdbc:source_db")
-                .log("Extracting data from source database")
-                .split(body())
+                .to("direct:etl");
+
+        RouteDefinition etl = from("direct:etl")
+                .process(metrics::runStarted);
+        if (incremental) {
+            // The rows to extract are the ones updated after the watermark saved by the previous run, up to the most
+            // recent update found now, which becomes the watermark of the next run. The last_updated column is set when
+            // a row is written, not when its transaction commits, so the updates more recent than the safety lag are
+            // left to the next run: a transaction still open now may commit rows with an older last_updated later on
+            etl
+                    .to("sql:SELECT COALESCE(MAX(high_water_mark), TIMESTAMP '1970-01-01') FROM Etl_Watermark WHERE name = 'Source'"
+                            + "?dataSource=#target_db&outputType=SelectOne&outputHeader=EtlLowWaterMark")
+                    .to("sql:SELECT MAX(last_updated) FROM Source"
+                            + " WHERE last_updated <= clock_timestamp() - INTERVAL '1 millisecond' * {{etl.incremental.safety-lag}}"
+                            + "?dataSource=#source_db&outputType=SelectOne&outputHeader=EtlHighWaterMark");
+        } else {
+            etl
+                    .setBody().simple("DELETE FROM Target")
+                    .to("jdbc:target_db");
+        }
+
+        etl
+                .to("sql:SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM Source?dataSource=#source_db&outputType=SelectOne")
+                .process(exchange -> {
+                    Map<String, Object> bounds = exchange.getIn().getBody(Map.class);
+                    exchange.getIn().setBody(idRanges(bounds.get("min_id"), bounds.get("max_id"), partitions));
+                })
+                .split(body()).parallelProcessing().executorService(partitionWorkers).stopOnException()
                 .process(exchange -> {
-                    Map<String, Object> sourceData = exchange.getIn().getBody(Map.class);
-                    String review = (String) sourceData.get("review");
-                    int mappedReview = reviewMapping.getOrDefault(review, 0);
-                    sourceData.put("review", mappedReview);
+                    long[] range = exchange.getIn().getBody(long[].class);
+                    exchange.getIn().setHeader("EtlPartitionStart", range[0]);
+                    exchange.getIn().setHeader("EtlPartitionEnd", range[1]);
                 })
-                .log("-> Transforming review for hotel '${body[hotel_name]}'")
-                .setBody()
-                .simple("INSERT INTO Target (id, hotel_name, price, review) VALUES(${body[id]}, '${body[hotel_name]}', ${body[price]}, ${body[review]})")
-                .to("jdbc:target_db")
+                .to("direct:etlPartition")
+                .end();
+
+        if (incremental) {
+            // Only move the watermark once every row up to it has been loaded, so that a failed run is retried as a whole
+            etl
+                    .to("sql:INSERT INTO Etl_Watermark (name, high_water_mark) VALUES ('Source', :#${header.EtlHighWaterMark})"
+                            + " ON CONFLICT (name) DO UPDATE"
+                            + " SET high_water_mark = COALESCE(EXCLUDED.high_water_mark, Etl_Watermark.high_water_mark)"
+                            + "?dataSource=#target_db")
+                    .log("-> Saved watermark ${header.EtlHighWaterMark}");
+        }
+
+        etl.process(metrics::runCompleted);
+
+        from("direct:etlPartition")
+                .setBody().simple("SELECT * FROM Source WHERE id >= :?EtlPartitionStart AND id < :?EtlPartitionEnd"
+                        + (incremental ? " AND last_updated > :?EtlLowWaterMark AND last_updated <= :?EtlHighWaterMark" : ""))
+                .process(metrics::extractStarted)
+                // Stream the result set through a database cursor instead of reading the whole table upfront
+                .to("jdbc:source_db?useHeadersAsParameters=true&outputType=StreamList"
+                        + "&statement.fetchSize={{etl.extract.fetch-size}}")
+                .log("Extracting data from source database for ids ${header.EtlPartitionStart} to ${header.EtlPartitionEnd}")
+                // Group the extracted rows into batches of the configured size
+                .split(simple("${collate(" + batchSize + ")}")).streaming()
+                .process(metrics::batchExtracted)
+                .process(exchange -> {
+                    List<Map<String, Object>> batch = exchange.getIn().getBody(List.class);
+                    for (Map<String, Object> sourceData : batch) {
+                        String review = (String) sourceData.get("review");
+                        int mappedReview = reviewMapping.getOrDefault(review, 0);
+                        sourceData.put("review", mappedReview);
+                    }
+                })
+                .process(metrics::batchTransformed)
+                .log("-> Transformed reviews for ${body.size} hotels")
+                // Insert the whole batch through a single prepared statement, rows that were already loaded by a
+                // previous incremental run are updated in place
+                .to("sql:INSERT INTO Target (id, hotel_name, price, review) VALUES (:#id, :#hotel_name, :#price, :#review)"
+                        + (incremental
+                                ? " ON CONFLICT (id) DO UPDATE SET hotel_name = EXCLUDED.hotel_name, price = EXCLUDED.price,"
+                                        + " review = EXCLUDED.review"
+                                : "")
+                        + "?dataSource=#target_db&batch=true")
+                .process(metrics::batchLoaded)
                 .log("-> Loading transformed data in target database");
     }
+
+    /**
+     * Splits the {@code [minId, maxId]} range into at most {@code partitions} contiguous ranges of about the same
+     * width. Each range is a {@code long[]} holding its inclusive start and exclusive end.
+     */
+    static List<long[]> idRanges(Object minId, Object maxId, int partitions) {
+        List<long[]> ranges = new ArrayList<>();
+        if (minId == null || maxId == null) {
+            // Empty Source table
+            return ranges;
+        }
+        long min = ((Number) minId).longValue();
+        long end = ((Number) maxId).longValue() + 1;
+        long width = Math.max(1, (end - min + partitions - 1) / partitions);
+        for (long start = min; start < end; start += width) {
+            ranges.add(new long[] { start, Math.min(start + width, end) });
+        }
+        return ranges;
+    }
 }
@@ -16,6 +16,9 @@
  */
 package org.acme.jdbc;
 
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -25,6 +28,8 @@ import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
+import org.apache.camel.Header;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @Named("reviewService")
 @ApplicationScoped
@@ -35,16 +40,45 @@ public class JdbcService {
     @DataSource("target_db")
     AgroalDataSource targetDb;
 
-    String getHotelReviews() throws SQLException {
+    @ConfigProperty(name = "reviews.limit.default")
+    int defaultLimit;
 
-        StringBuilder sb = new StringBuilder();
+    @ConfigProperty(name = "reviews.limit.max")
+    int maxLimit;
 
-        ResultSet rs = targetDb.getConnection().createStatement().executeQuery("SELECT (hotel_name, review) FROM Target");
+    @ConfigProperty(name = "reviews.fetch-size")
+    int fetchSize;
 
-        while (rs.next()) {
-            sb.append(rs.getString(1));
+    /**
+     * Returns a page of at most {@code limit} reviews, ordered by id and starting after {@code afterId}, as a JSON array
+     * streamed from a database cursor. The stream owns the connection and releases it once it has been fully read.
+     */
+    InputStream getHotelReviews(@Header("afterId") Long afterId, @Header("limit") Integer limit) throws SQLException {
+        if (limit == null) {
+            limit = defaultLimit;
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit + " but was " + limit);
         }
 
-        return sb.toString();
+        Connection connection = targetDb.getConnection();
+        PreparedStatement statement = null;
+        try {
+            // PostgreSQL only streams the rows through a cursor inside a transaction
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            statement = connection.prepareStatement(
+                    "SELECT id, hotel_name, review FROM Target WHERE id > ? ORDER BY id LIMIT ?");
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, afterId == null ? Long.MIN_VALUE : afterId);
+            statement.setInt(2, limit);
+            return new HotelReviewsInputStream(connection, statement, statement.executeQuery(), fetchSize);
+        } catch (SQLException | RuntimeException e) {
+            if (statement != null) {
+                statement.close();
+            }
+            connection.close();
+            throw e;
+        }
     }
 }
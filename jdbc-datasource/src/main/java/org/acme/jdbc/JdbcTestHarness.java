@@ -16,12 +16,22 @@
  */
 package org.acme.jdbc;
 
+import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 
 public class JdbcTestHarness extends RouteBuilder {
     @Override
     public void configure() throws Exception {
-        from("platform-http:/getHotelReviews")
-                .bean("reviewService", "getHotelReviews");
+        // A limit out of the accepted range is a client error
+        onException(IllegalArgumentException.class)
+                .handled(true)
+                .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(400))
+                .setHeader(Exchange.CONTENT_TYPE, constant("text/plain"))
+                .setBody(exceptionMessage());
+
+        // The optional afterId and limit query parameters page through the reviews
+        from("platform-http:/getHotelReviews?httpMethodRestrict=GET")
+                .bean("reviewService", "getHotelReviews")
+                .setHeader(Exchange.CONTENT_TYPE, constant("application/json"));
     }
 }
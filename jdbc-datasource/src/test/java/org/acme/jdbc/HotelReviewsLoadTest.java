@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(PostgresSourceDatabaseTestResource.class)
+@QuarkusTestResource(PostgresTargetDatabaseTestResource.class)
+public class HotelReviewsLoadTest {
+
+    private static final Logger LOG = Logger.getLogger(HotelReviewsLoadTest.class);
+
+    private static final int CLIENTS = 32;
+    private static final int ROUNDS = 10;
+    private static final int CALLS_PER_ROUND = 200;
+
+    @Inject
+    @DataSource("target_db")
+    AgroalDataSource targetDb;
+
+    @Test
+    public void concurrentCallsShouldNotDrainTheConnectionPool() throws Exception {
+        // Wait for the ETL run to fill the target database
+        await().atMost(30L, TimeUnit.SECONDS).pollDelay(500, TimeUnit.MILLISECONDS)
+                .until(() -> JdbcTest.ALL_REVIEWS.equals(RestAssured.get("/getHotelReviews").then().extract().asString()));
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Long> activeConnections = new ArrayList<>();
+            for (int round = 0; round < ROUNDS; round++) {
+                List<Future<String>> calls = new ArrayList<>();
+                for (int i = 0; i < CALLS_PER_ROUND; i++) {
+                    calls.add(clients.submit(() -> RestAssured.get("/getHotelReviews").then().statusCode(200)
+                            .extract().asString()));
+                }
+                for (Future<String> call : calls) {
+                    assertEquals(JdbcTest.ALL_REVIEWS, call.get(30, TimeUnit.SECONDS));
+                }
+                activeConnections.add(targetDb.getMetrics().activeCount());
+            }
+
+            LOG.infof("Active target_db connections after each round of %d calls: %s, at most %d connections used",
+                    CALLS_PER_ROUND, activeConnections, targetDb.getMetrics().maxUsedCount());
+
+            // Every response released its connection, so that the pool use does not grow with the number of calls
+            assertTrue(activeConnections.stream().allMatch(active -> active == 0),
+                    "Connections leaked by /getHotelReviews: " + activeConnections);
+            assertTrue(targetDb.getMetrics().maxUsedCount() <= targetDb.getConfiguration().connectionPoolConfiguration()
+                    .maxSize());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
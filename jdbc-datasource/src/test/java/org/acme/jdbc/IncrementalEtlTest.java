@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.apache.camel.ProducerTemplate;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(IncrementalEtlTest.IncrementalEtlProfile.class)
+@QuarkusTestResource(PostgresSourceDatabaseTestResource.class)
+@QuarkusTestResource(PostgresTargetDatabaseTestResource.class)
+public class IncrementalEtlTest {
+
+    @Inject
+    @DataSource("source_db")
+    AgroalDataSource sourceDb;
+
+    @Inject
+    @DataSource("target_db")
+    AgroalDataSource targetDb;
+
+    @Inject
+    ProducerTemplate producerTemplate;
+
+    @Test
+    public void secondRunShouldOnlyLoadChangedRows() throws SQLException {
+        producerTemplate.sendBody("direct:etl", null);
+        assertEquals(Map.of(1, 1, 2, 0, 3, -1), targetReviews());
+
+        // A full reload would overwrite this row, the incremental run must leave it alone as its source row is unchanged
+        execute(targetDb, "UPDATE Target SET review = 42 WHERE id = 2");
+        // The delta: one updated and one new source row
+        execute(sourceDb, "UPDATE Source SET review = 'worst' WHERE id = 1");
+        execute(sourceDb, "INSERT INTO Source (id, hotel_name, price, review) VALUES (4, 'New Hotel', 50, 'good')");
+
+        producerTemplate.sendBody("direct:etl", null);
+        assertEquals(Map.of(1, -1, 2, 42, 3, -1, 4, 0), targetReviews());
+    }
+
+    private Map<Integer, Integer> targetReviews() throws SQLException {
+        Map<Integer, Integer> reviews = new HashMap<>();
+        try (Connection connection = targetDb.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT id, review FROM Target")) {
+            while (rs.next()) {
+                reviews.put(rs.getInt(1), rs.getInt(2));
+            }
+        }
+        return reviews;
+    }
+
+    private static void execute(AgroalDataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    public static class IncrementalEtlProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // The test triggers the ETL runs itself, and no other transaction writes to the source database meanwhile
+            return Map.of("etl.mode", "incremental", "etl.timer.delay", "3600000", "etl.incremental.safety-lag", "0");
+        }
+    }
+}
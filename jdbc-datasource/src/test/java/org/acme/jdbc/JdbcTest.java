@@ -24,12 +24,17 @@ import io.restassured.RestAssured;
 import org.junit.jupiter.api.Test;
 
 import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
 
 @QuarkusTest
 @QuarkusTestResource(PostgresSourceDatabaseTestResource.class)
 @QuarkusTestResource(PostgresTargetDatabaseTestResource.class)
 public class JdbcTest {
 
+    static final String ALL_REVIEWS = "[{\"id\":1,\"hotel_name\":\"Grand Hotel\",\"review\":1},"
+            + "{\"id\":2,\"hotel_name\":\"Middle Hotel\",\"review\":0},"
+            + "{\"id\":3,\"hotel_name\":\"Small Hotel\",\"review\":-1}]";
+
     @Test
     public void etlBridgeShouldTransferValuesBetweenDatebases() {
         await().atMost(30L, TimeUnit.SECONDS).pollDelay(500, TimeUnit.MILLISECONDS).until(() -> {
@@ -38,7 +43,48 @@ public class JdbcTest {
                     .then()
                     .extract().asString();
 
-            return "(\"Grand Hotel\",1)(\"Middle Hotel\",0)(\"Small Hotel\",-1)".equals(hotelReviews);
+            return ALL_REVIEWS.equals(hotelReviews);
+        });
+    }
+
+    @Test
+    public void hotelReviewsShouldBePaginated() {
+        await().atMost(30L, TimeUnit.SECONDS).pollDelay(500, TimeUnit.MILLISECONDS).until(() -> {
+            String hotelReviews = RestAssured
+                    .given()
+                    .queryParam("afterId", 1)
+                    .queryParam("limit", 1)
+                    .get("/getHotelReviews")
+                    .then()
+                    .extract().asString();
+
+            return "[{\"id\":2,\"hotel_name\":\"Middle Hotel\",\"review\":0}]".equals(hotelReviews);
+        });
+    }
+
+    @Test
+    public void limitOutOfRangeShouldBeRejected() {
+        RestAssured
+                .given()
+                .queryParam("limit", 0)
+                .get("/getHotelReviews")
+                .then()
+                .statusCode(400)
+                .body(containsString("limit must be between 1 and 1000"));
+    }
+
+    @Test
+    public void etlRunShouldBeMeasured() {
+        await().atMost(30L, TimeUnit.SECONDS).pollDelay(500, TimeUnit.MILLISECONDS).until(() -> {
+            String metrics = RestAssured
+                    .get("/q/metrics")
+                    .then()
+                    .extract().asString();
+
+            return metrics.contains("etl_rows_extracted_total 3.0")
+                    && metrics.contains("etl_rows_loaded_total 3.0")
+                    && metrics.contains("etl_phase_seconds_count{phase=\"load\"}")
+                    && metrics.contains("etl_run_seconds_count 1.0");
         });
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jdbc.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.jdbc.JdbcRoutes;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many rows per second the ETL routes copy from the source to the target database. Both databases are H2
+ * in PostgreSQL mode, standing in for the PostgreSQL servers used by the example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 30)
+@Measurement(iterations = 3, time = 30)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EtlBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final String[] REVIEWS = { "best", "good", "worst" };
+
+    @Param({ "1", "100", "1000" })
+    String batchSize;
+
+    @Param({ "1", "4" })
+    String partitions;
+
+    private CamelContext context;
+    private ProducerTemplate producerTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        JdbcDataSource sourceDb = createDataSource("source_db");
+        JdbcDataSource targetDb = createDataSource("target_db");
+        try (Connection connection = sourceDb.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Source (id SERIAL PRIMARY KEY, hotel_name VARCHAR(255), price DECIMAL, "
+                    + "review VARCHAR(255))");
+        }
+        try (Connection connection = targetDb.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Target (id SERIAL PRIMARY KEY, hotel_name VARCHAR(255), price DECIMAL, "
+                    + "review DECIMAL)");
+        }
+        populateSource(sourceDb);
+
+        context = new DefaultCamelContext();
+        context.getRegistry().bind("source_db", sourceDb);
+        context.getRegistry().bind("target_db", targetDb);
+
+        Properties properties = new Properties();
+        // The timer never fires, the benchmark triggers the ETL run itself
+        properties.setProperty("etl.timer.delay", "3600000");
+        properties.setProperty("etl.timer.period", "3600000");
+        properties.setProperty("etl.timer.repeatcount", "0");
+        properties.setProperty("etl.mode", "full");
+        properties.setProperty("etl.metrics.prefix", "etl");
+        properties.setProperty("etl.partitions", partitions);
+        properties.setProperty("etl.extract.fetch-size", "1000");
+        properties.setProperty("etl.load.batch-size", batchSize);
+        context.getPropertiesComponent().setInitialProperties(properties);
+
+        context.addRoutes(new JdbcRoutes());
+        context.start();
+        producerTemplate = context.createProducerTemplate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void etl() {
+        producerTemplate.sendBody("direct:etl", null);
+    }
+
+    private static JdbcDataSource createDataSource(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private static void populateSource(JdbcDataSource sourceDb) throws SQLException {
+        try (Connection connection = sourceDb.getConnection();
+                PreparedStatement statement = connection
+                        .prepareStatement("INSERT INTO Source (id, hotel_name, price, review) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                statement.setInt(1, i);
+                statement.setString(2, "Hotel " + i);
+                statement.setBigDecimal(3, BigDecimal.valueOf(i % 500));
+                statement.setString(4, REVIEWS[i % REVIEWS.length]);
+                statement.addBatch();
+                if (i % 10_000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+}
@@ -15,7 +15,18 @@
 -- limitations under the License.
 --
 
-CREATE TABLE IF NOT EXISTS Source (id SERIAL PRIMARY KEY, hotel_name VARCHAR(255), price DECIMAL, review VARCHAR(255));
+CREATE TABLE IF NOT EXISTS Source (id SERIAL PRIMARY KEY, hotel_name VARCHAR(255), price DECIMAL, review VARCHAR(255),
+    last_updated TIMESTAMP NOT NULL DEFAULT clock_timestamp());
+
+-- Keep last_updated current so that the incremental ETL picks up the updated rows
+CREATE OR REPLACE FUNCTION touch_last_updated() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.last_updated = clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER source_last_updated BEFORE UPDATE ON Source FOR EACH ROW EXECUTE FUNCTION touch_last_updated();
 
 INSERT INTO Source (id, hotel_name, price, review) VALUES
 (1, 'Grand Hotel', 100, 'best'),
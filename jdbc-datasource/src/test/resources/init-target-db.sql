@@ -15,4 +15,7 @@
 -- limitations under the License.
 --
 
-CREATE TABLE IF NOT EXISTS Target (id SERIAL PRIMARY KEY, hotel_name VARCHAR(255), price DECIMAL, review DECIMAL);
\ No newline at end of file
+CREATE TABLE IF NOT EXISTS Target (id SERIAL PRIMARY KEY, hotel_name VARCHAR(255), price DECIMAL, review DECIMAL);
+
+-- Most recent Source.last_updated value loaded by the incremental ETL
+CREATE TABLE IF NOT EXISTS Etl_Watermark (name VARCHAR(255) PRIMARY KEY, high_water_mark TIMESTAMP);
@@ -31,7 +31,7 @@ import jakarta.persistence.Table;
 @Entity
 @Table(name = "audit_log")
 @NamedQueries({
-        @NamedQuery(name = "getAuditLog", query = "select al from AuditLog al")
+        @NamedQuery(name = "getAuditLogPage", query = "select al from AuditLog al where al.id > :afterId order by al.id")
 })
 @Named("auditLog")
 @ApplicationScoped
@@ -43,6 +43,10 @@ public class AuditLog {
     private long id;
     private String message;
 
+    public long getId() {
+        return id;
+    }
+
     public String getMessage() {
         return message;
     }
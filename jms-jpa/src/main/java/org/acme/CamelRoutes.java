@@ -19,6 +19,7 @@ package org.acme;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.TransactionManager;
+import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.rest.RestParamType;
 
@@ -32,14 +33,28 @@ public class CamelRoutes extends RouteBuilder {
         rest("/messages")
                 .produces("text/plain")
                 .get()
+                .param().name("afterId").type(RestParamType.query).dataType("integer").required(false).endParam()
+                .param().name("limit").type(RestParamType.query).dataType("integer").required(false).endParam()
+                .param().name("stream").type(RestParamType.query).dataType("boolean").required(false).endParam()
                 .to("direct:messages")
                 .post("/{message}")
                 .param().name("message").type(RestParamType.path).dataType("string").endParam()
                 .to("direct:trans");
 
         from("direct:messages")
-                .to("jpa:org.acme.AuditLog?namedQuery=getAuditLog")
-                .convertBodyTo(String.class);
+                // A limit below 1 is a client error
+                .onException(IllegalArgumentException.class)
+                .handled(true)
+                .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(400))
+                .setBody(exceptionMessage())
+                .end()
+                .choice()
+                .when(header("stream").isEqualTo("true"))
+                .to("bean:auditLogReader?method=stream")
+                .otherwise()
+                .to("bean:auditLogReader?method=page")
+                .convertBodyTo(String.class)
+                .end();
 
         from("direct:trans")
                 .transacted()
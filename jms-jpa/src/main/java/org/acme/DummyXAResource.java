@@ -16,24 +16,19 @@
  */
 package org.acme;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.util.Arrays;
 
 import javax.transaction.xa.XAException;
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
 
-import com.arjuna.ats.arjuna.common.Uid;
 import org.jboss.logging.Logger;
 
 /**
  * This class is used solely for simulating system crash.
  *
+ * The prepared Xids are recorded in the {@link PrepareLog} of {@link #LOG_DIR}, until they are committed or rolled
+ * back.
  */
 public class DummyXAResource implements XAResource {
     private Logger LOG = Logger.getLogger(DummyXAResource.class);
@@ -44,8 +39,6 @@ public class DummyXAResource implements XAResource {
 
     private Xid xid;
 
-    private File file;
-
     public DummyXAResource(boolean shouldCrash) {
         this.shouldCrash = shouldCrash;
     }
@@ -53,18 +46,17 @@ public class DummyXAResource implements XAResource {
     /**
      * Constructor used by recovery manager to recreate XAResource
      *
-     * @param file File where Xid of the XAResource is stored
+     * @param xid Xid read from the prepare log
      */
-    public DummyXAResource(File file) throws IOException {
+    public DummyXAResource(Xid xid) {
         this.shouldCrash = false;
-        this.file = file;
-        this.xid = getXidFromFile(file);
+        this.xid = xid;
     }
 
     public int prepare(final Xid xid) throws XAException {
         LOG.info("Preparing " + DummyXAResource.class.getSimpleName());
 
-        this.file = writeXidToFile(xid, LOG_DIR);
+        PrepareLog.forDirectory(LOG_DIR).prepare(xid);
 
         return XA_OK;
     }
@@ -77,17 +69,13 @@ public class DummyXAResource implements XAResource {
             Runtime.getRuntime().halt(1);
         }
 
-        removeFile(file);
-        this.file = null;
-        this.xid = null;
+        complete(xid);
     }
 
     public void rollback(final Xid xid) throws XAException {
         LOG.info("Rolling back " + DummyXAResource.class.getSimpleName());
 
-        removeFile(file);
-        this.file = null;
-        this.xid = null;
+        complete(xid);
     }
 
     public boolean isSameRM(XAResource xaResource) throws XAException {
@@ -126,79 +114,9 @@ public class DummyXAResource implements XAResource {
         return true;
     }
 
-    private Xid getXidFromFile(File file) throws IOException {
-        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(file))) {
-            int formatId = inputStream.readInt();
-            int globalTransactionIdLength = inputStream.readInt();
-            byte[] globalTransactionId = new byte[globalTransactionIdLength];
-            inputStream.read(globalTransactionId, 0, globalTransactionIdLength);
-            int branchQualifierLength = inputStream.readInt();
-            byte[] branchQualifier = new byte[branchQualifierLength];
-            inputStream.read(branchQualifier, 0, branchQualifierLength);
-
-            return new XidImpl(formatId, globalTransactionId, branchQualifier);
-        }
-    }
-
-    private File writeXidToFile(Xid xid, String directory) throws XAException {
-        File dir = new File(directory);
-
-        if (!dir.exists() && !dir.mkdirs()) {
-            throw new XAException(XAException.XAER_RMERR);
-        }
-
-        File file = new File(dir, new Uid().fileStringForm() + "_");
-
-        try (DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(file))) {
-            outputStream.writeInt(xid.getFormatId());
-            outputStream.writeInt(xid.getGlobalTransactionId().length);
-            outputStream.write(xid.getGlobalTransactionId(), 0, xid.getGlobalTransactionId().length);
-            outputStream.writeInt(xid.getBranchQualifier().length);
-            outputStream.write(xid.getBranchQualifier(), 0, xid.getBranchQualifier().length);
-            outputStream.flush();
-        } catch (IOException e) {
-            throw new XAException(XAException.XAER_RMERR);
-        }
-
-        return file;
-    }
-
-    private void removeFile(File file) throws XAException {
-        if (file != null) {
-            if (!file.delete()) {
-                throw new XAException(XAException.XA_RETRY);
-            }
-        }
-    }
-
-    private class XidImpl implements Xid {
-
-        private final int formatId;
-
-        private final byte[] globalTransactionId;
-
-        private final byte[] branchQualifier;
-
-        public XidImpl(int formatId, byte[] globalTransactionId, byte[] branchQualifier) {
-            this.formatId = formatId;
-            this.globalTransactionId = globalTransactionId;
-            this.branchQualifier = branchQualifier;
-        }
-
-        @Override
-        public int getFormatId() {
-            return formatId;
-        }
-
-        @Override
-        public byte[] getGlobalTransactionId() {
-            return globalTransactionId;
-        }
-
-        @Override
-        public byte[] getBranchQualifier() {
-            return branchQualifier;
-        }
-
+    private void complete(Xid xid) {
+        // Also when the prepare failed, its record may still be written: the log ignores the Xids it does not know
+        PrepareLog.forDirectory(LOG_DIR).complete(xid);
+        this.xid = null;
     }
 }
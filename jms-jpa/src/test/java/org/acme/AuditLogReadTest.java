@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(AuditLogReadTest.SmallPagesProfile.class)
+@QuarkusTestResource(H2DatabaseTestResource.class)
+public class AuditLogReadTest {
+    @Test
+    public void pagesShouldMatchTheStream() {
+        String prefix = UUID.randomUUID().toString();
+        for (int i = 0; i < 5; i++) {
+            given().when().post("/api/messages/" + prefix + "-" + i)
+                    .then()
+                    .statusCode(200);
+        }
+        // The -ok audit logs are written asynchronously by the JMS consumer
+        for (int i = 0; i < 5; i++) {
+            String ok = "{message=" + prefix + "-" + i + "-ok}";
+            await().untilAsserted(() -> given()
+                    .when().get("/api/messages?stream=true")
+                    .then()
+                    .statusCode(200)
+                    .body(containsString(ok)));
+        }
+
+        String stream = given().when().get("/api/messages?stream=true")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(stream.contains("{message=" + prefix + "-" + i + "}"), stream);
+        }
+
+        List<String> rows = new ArrayList<>();
+        String afterId = "0";
+        while (true) {
+            Response page = given().queryParam("afterId", afterId).when().get("/api/messages");
+            assertEquals(200, page.statusCode());
+            String body = page.asString();
+            if ("[]".equals(body)) {
+                break;
+            }
+            List<String> pageRows = List.of(body.substring(1, body.length() - 1).split(", "));
+            assertTrue(pageRows.size() <= 2, body);
+            rows.addAll(pageRows);
+            afterId = page.header(AuditLogReader.NEXT_AFTER_ID);
+        }
+        assertEquals(stream, rows.toString());
+    }
+
+    @Test
+    public void limitShouldBeCapped() {
+        for (int i = 0; i < 4; i++) {
+            given().when().post("/api/messages/" + UUID.randomUUID())
+                    .then()
+                    .statusCode(200);
+        }
+
+        String body = given().queryParam("limit", 100).when().get("/api/messages")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        assertEquals(3, body.split(", ").length, body);
+    }
+
+    @Test
+    public void limitBelowOneShouldBeRejected() {
+        given().queryParam("limit", 0).when().get("/api/messages")
+                .then()
+                .statusCode(400);
+    }
+
+    public static class SmallPagesProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "audit-log.read.limit.default", "2",
+                    "audit-log.read.limit.max", "3");
+        }
+    }
+}
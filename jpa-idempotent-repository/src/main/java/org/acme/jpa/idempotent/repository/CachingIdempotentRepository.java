@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.support.LRUCacheFactory;
+import org.apache.camel.support.service.ServiceHelper;
+import org.apache.camel.support.service.ServiceSupport;
+
+/**
+ * An idempotent repository that keeps the most recently seen keys in a bounded, expiring near-cache in front of
+ * another repository, typically a JpaMessageIdRepository. A key found in the cache is answered as a duplicate without
+ * a database round trip, any other key is checked against, and written through to, the underlying repository.
+ *
+ * Only keys known to be stored in the underlying repository are cached, so the duplicate semantics are unchanged as
+ * long as keys are only removed through this repository. Keys removed by another application instance may still be
+ * reported as duplicates until their cache entry expires.
+ */
+public class CachingIdempotentRepository extends ServiceSupport implements IdempotentRepository {
+
+    private final IdempotentRepository delegate;
+    private final long timeToLiveNanos;
+    /**
+     * Maps each cached key to the {@link System#nanoTime()} at which its entry expires.
+     */
+    private final Map<String, Long> cache;
+
+    public CachingIdempotentRepository(IdempotentRepository delegate, int maxSize, Duration timeToLive) {
+        this.delegate = delegate;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.cache = LRUCacheFactory.newLRUCache(maxSize);
+    }
+
+    @Override
+    public boolean add(String key) {
+        if (isCached(key)) {
+            return false;
+        }
+        boolean added = delegate.add(key);
+        // Either way the key is now stored in the underlying repository
+        cache(key);
+        return added;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        if (isCached(key)) {
+            return true;
+        }
+        boolean contained = delegate.contains(key);
+        if (contained) {
+            cache(key);
+        }
+        return contained;
+    }
+
+    @Override
+    public boolean remove(String key) {
+        cache.remove(key);
+        return delegate.remove(key);
+    }
+
+    @Override
+    public boolean confirm(String key) {
+        return delegate.confirm(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        delegate.clear();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ServiceHelper.startService(delegate);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        cache.clear();
+        ServiceHelper.stopService(delegate);
+    }
+
+    private boolean isCached(String key) {
+        Long expiresAt = cache.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiresAt > 0) {
+            cache.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    private void cache(String key) {
+        cache.put(key, System.nanoTime() + timeToLiveNanos);
+    }
+}
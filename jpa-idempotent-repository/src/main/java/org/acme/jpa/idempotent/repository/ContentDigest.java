@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Named;
+import org.apache.camel.Handler;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Computes fixed size idempotency keys out of the message content, so that the keys stored and indexed in the
+ * CAMEL_MESSAGEPROCESSED table do not grow with the size of the incoming files.
+ */
+@ApplicationScoped
+@Named("contentDigest")
+public class ContentDigest {
+
+    /**
+     * Any algorithm supported by {@link MessageDigest}, like SHA-256 or SHA-512.
+     */
+    @ConfigProperty(name = "idempotent.key.digest-algorithm", defaultValue = "SHA-256")
+    String algorithm;
+
+    /**
+     * The content parameter is a stream over the incoming file, which is hashed while it is read without loading it in
+     * memory. Returns the digest as an hexadecimal string.
+     */
+    @Handler
+    public String digest(InputStream content) throws IOException, NoSuchAlgorithmException {
+        MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+        try (InputStream in = content) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.acme.jpa.idempotent.repository;
 
+import java.time.Duration;
+
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Named;
@@ -23,30 +25,129 @@ import jakarta.persistence.EntityManagerFactory;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.jpa.TransactionStrategy;
 import org.apache.camel.processor.idempotent.jpa.JpaMessageIdRepository;
+import org.apache.camel.spi.IdempotentRepository;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class JpaIdempotentRoute extends RouteBuilder {
 
+    private static final String PROCESSOR_NAME = "myProcessorName";
+
     /**
      * Gets the HTTP port where the example harness is listening for API calls.
      */
     @ConfigProperty(name = "quarkus.http.port", defaultValue = "8085")
     private int quarkusPlatformHttpPort;
 
+    /**
+     * Whether the idempotency key is the whole message body, or a digest of it.
+     */
+    @ConfigProperty(name = "idempotent.key.mode", defaultValue = "body")
+    String keyMode;
+
+    /**
+     * Whether recently seen message IDs are kept in memory in front of the database.
+     */
+    @ConfigProperty(name = "idempotent.cache.enabled", defaultValue = "true")
+    boolean cacheEnabled;
+
+    /**
+     * How many message IDs are kept in memory at most.
+     */
+    @ConfigProperty(name = "idempotent.cache.max-size", defaultValue = "10000")
+    int cacheMaxSize;
+
+    /**
+     * How long a message ID is kept in memory after it was last looked up in the database.
+     */
+    @ConfigProperty(name = "idempotent.cache.time-to-live", defaultValue = "10m")
+    Duration cacheTimeToLive;
+
+    /**
+     * Whether a Bloom filter of the stored message IDs is used to insert new message IDs without looking them up first.
+     */
+    @ConfigProperty(name = "idempotent.key-filter.enabled", defaultValue = "true")
+    boolean keyFilterEnabled;
+
+    /**
+     * How many message IDs the Bloom filter is sized for.
+     */
+    @ConfigProperty(name = "idempotent.key-filter.expected-keys", defaultValue = "1000000")
+    long keyFilterExpectedKeys;
+
+    /**
+     * The probability that the Bloom filter wrongly reports a new message ID as possibly stored, once it holds the
+     * expected number of message IDs.
+     */
+    @ConfigProperty(name = "idempotent.key-filter.false-positive-probability", defaultValue = "0.01")
+    double keyFilterFalsePositiveProbability;
+
+    /**
+     * Whether this application instance is the only one storing message IDs, so that the Bloom filter knows all of them.
+     */
+    @ConfigProperty(name = "idempotent.key-filter.single-writer", defaultValue = "false")
+    boolean keyFilterSingleWriter;
+
+    /**
+     * Whether the message IDs stored for longer than the time-to-live are regularly deleted.
+     */
+    @ConfigProperty(name = "idempotent.purge.enabled", defaultValue = "true")
+    boolean purgeEnabled;
+
+    /**
+     * How long a message ID is kept in the database, a message presented again after that is processed again.
+     */
+    @ConfigProperty(name = "idempotent.time-to-live", defaultValue = "7d")
+    Duration timeToLive;
+
+    /**
+     * How many expired message IDs are deleted in each purge transaction.
+     */
+    @ConfigProperty(name = "idempotent.purge.batch-size", defaultValue = "10000")
+    int purgeBatchSize;
+
     /**
      * The camel route expect a bean named jpaIdempotentRepository of type IdempotentRepository to be present in the
      * registry. One way to create such a bean is to use a producer method as shown below.
      */
     @Produces
     @Named
-    JpaMessageIdRepository jpaIdempotentRepository(EntityManagerFactory entityManagerFactory,
+    IdempotentRepository jpaIdempotentRepository(EntityManagerFactory entityManagerFactory,
             TransactionStrategy transactionStrategy) {
         /**
          * The JPA message id repository will store duplicate message IDs in a database. Distinct repository could be
          * created on the same database by using different processor names.
          */
-        return new JpaMessageIdRepository(entityManagerFactory, transactionStrategy, "myProcessorName");
+        JpaMessageIdRepository jpaMessageIdRepository = new JpaMessageIdRepository(entityManagerFactory,
+                transactionStrategy, PROCESSOR_NAME);
+        IdempotentRepository repository = jpaMessageIdRepository;
+        if (keyFilterEnabled) {
+            /**
+             * Most messages are new, and a Bloom filter tells for sure that a message ID was never stored, so that it
+             * can be inserted without looking it up in the database first.
+             */
+            repository = new KeyFilterIdempotentRepository(jpaMessageIdRepository, entityManagerFactory,
+                    transactionStrategy, new BloomKeyFilter(keyFilterExpectedKeys, keyFilterFalsePositiveProbability),
+                    keyFilterSingleWriter);
+        }
+        if (cacheEnabled) {
+            /**
+             * Duplicate messages are mostly recent ones, so a bounded near-cache answers them without a database round
+             * trip while new message IDs are still written through to the database.
+             */
+            repository = new CachingIdempotentRepository(repository, cacheMaxSize, cacheTimeToLive);
+        }
+        return repository;
+    }
+
+    /**
+     * The bean deleting the expired message IDs, invoked on a regular basis by the purge route below.
+     */
+    @Produces
+    @Named
+    MessageIdPurger messageIdPurger(EntityManagerFactory entityManagerFactory, TransactionStrategy transactionStrategy) {
+        return new MessageIdPurger(entityManagerFactory, transactionStrategy, PROCESSOR_NAME, timeToLive,
+                purgeBatchSize);
     }
 
     @Override
@@ -58,9 +159,11 @@ public class JpaIdempotentRoute extends RouteBuilder {
                 .log("Received an example input file having the content ${body}")
                 /**
                  * The idempotent consumer pattern could be used as below. All messages presented with the same body more
-                 * than once will be filtered out.
+                 * than once will be filtered out. In digest mode, the key is a digest of the body computed by the bean
+                 * named contentDigest defined in ContentDigest.java, so that it has the same size whatever the size of
+                 * the file.
                  */
-                .idempotentConsumer(simple("${body}"))
+                .idempotentConsumer("digest".equals(keyMode) ? method("contentDigest") : simple("${body}"))
                 /**
                  * A place is needed in order to keep track of duplicate message bodies, it's called an idempotent
                  * repository The idempotent repository could be provided as a bean from the registry like below.
@@ -71,5 +174,15 @@ public class JpaIdempotentRoute extends RouteBuilder {
                  * Sends the content of the file to the costly API simulated by the example harness.
                  */
                 .toF("http://localhost:%s/costly-api-call", quarkusPlatformHttpPort);
+
+        if (purgeEnabled) {
+            /**
+             * Delete the expired message IDs in the background, so that the idempotent repository does not grow
+             * forever.
+             */
+            from("timer:purgeExpiredMessageIds?period={{idempotent.purge.period}}")
+                    .bean("messageIdPurger")
+                    .log("Purged ${body} expired message IDs");
+        }
     }
 }
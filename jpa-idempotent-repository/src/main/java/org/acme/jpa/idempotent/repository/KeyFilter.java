@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+/**
+ * A probabilistic set of keys that never reports a stored key as absent, but may report an absent key as present.
+ * Implementations must be thread safe.
+ */
+public interface KeyFilter {
+
+    /**
+     * Returns false when the key has definitely never been put in this filter.
+     */
+    boolean mightContain(String key);
+
+    void put(String key);
+
+    void clear();
+
+    /**
+     * Returns the probability that {@link #mightContain(String)} answers true for a key that was never put, given the
+     * number of keys put so far.
+     */
+    double expectedFalsePositiveProbability();
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.camel.component.jpa.TransactionStrategy;
+import org.apache.camel.processor.idempotent.jpa.JpaMessageIdRepository;
+import org.apache.camel.processor.idempotent.jpa.MessageProcessed;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.support.service.ServiceHelper;
+import org.apache.camel.support.service.ServiceSupport;
+import org.jboss.logging.Logger;
+
+/**
+ * An idempotent repository that uses a {@link KeyFilter} as a negative cache in front of a
+ * {@link JpaMessageIdRepository}. The filter is loaded with the message IDs already stored for the processor on
+ * startup and updated on each add. A message ID that the filter has definitely never seen is inserted straight away,
+ * skipping the lookup that JpaMessageIdRepository does before each insert. Any other message ID goes through the
+ * JpaMessageIdRepository.
+ *
+ * The unique constraint on the processor name and message ID keeps the duplicate detection exact: should another
+ * application instance have stored the message ID in the meantime, the insert fails and the message ID is reported as
+ * a duplicate. For the same reason {@link #contains(String)} only trusts the filter to answer that a message ID is
+ * absent when this instance is the single writer of the processor's message IDs, otherwise it looks the message ID up.
+ */
+public class KeyFilterIdempotentRepository extends ServiceSupport implements IdempotentRepository {
+
+    private static final Logger LOG = Logger.getLogger(KeyFilterIdempotentRepository.class);
+
+    private final JpaMessageIdRepository delegate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionStrategy transactionStrategy;
+    private final String processorName;
+    private final KeyFilter filter;
+    private final boolean singleWriter;
+
+    private final AtomicLong lookupsSkipped = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public KeyFilterIdempotentRepository(JpaMessageIdRepository delegate, EntityManagerFactory entityManagerFactory,
+            TransactionStrategy transactionStrategy, KeyFilter filter, boolean singleWriter) {
+        this.delegate = delegate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionStrategy = transactionStrategy;
+        this.processorName = delegate.getProcessorName();
+        this.filter = filter;
+        this.singleWriter = singleWriter;
+    }
+
+    @Override
+    public boolean add(String key) {
+        if (!filter.mightContain(key)) {
+            lookupsSkipped.incrementAndGet();
+            filter.put(key);
+            return insert(key);
+        }
+
+        lookups.incrementAndGet();
+        boolean added = delegate.add(key);
+        if (added) {
+            // The filter matched a message ID that was not stored yet
+            falsePositives.incrementAndGet();
+        }
+        return added;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        boolean mightContain = filter.mightContain(key);
+        if (!mightContain && singleWriter) {
+            lookupsSkipped.incrementAndGet();
+            return false;
+        }
+        lookups.incrementAndGet();
+        boolean contained = delegate.contains(key);
+        if (contained && !mightContain) {
+            // Stored by another instance since the filter was loaded
+            filter.put(key);
+        }
+        return contained;
+    }
+
+    @Override
+    public boolean remove(String key) {
+        // Bloom filters can't forget a key, the next add of this message ID simply goes through the lookup
+        return delegate.remove(key);
+    }
+
+    @Override
+    public boolean confirm(String key) {
+        return delegate.confirm(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        filter.clear();
+    }
+
+    /**
+     * Returns the number of database lookups that the filter avoided.
+     */
+    public long getLookupsSkipped() {
+        return lookupsSkipped.get();
+    }
+
+    /**
+     * Returns the number of message IDs that still had to be looked up in the database.
+     */
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    /**
+     * Returns the share of the new message IDs that the filter wrongly reported as possibly stored, and that were
+     * therefore looked up for nothing.
+     */
+    public double getFalsePositiveRate() {
+        long newKeys = lookupsSkipped.get() + falsePositives.get();
+        return newKeys == 0 ? 0 : (double) falsePositives.get() / newKeys;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ServiceHelper.startService(delegate);
+
+        long start = System.currentTimeMillis();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager
+                    .createQuery("SELECT x.messageId FROM MessageProcessed x WHERE x.processorName = :processorName",
+                            String.class)
+                    .setParameter("processorName", processorName)
+                    .getResultStream()
+                    .forEach(filter::put);
+        } finally {
+            entityManager.close();
+        }
+        LOG.infof("Loaded the message IDs of processor %s in the key filter in %d ms", processorName,
+                System.currentTimeMillis() - start);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        LOG.infof("Key filter of processor %s: %d database lookups skipped, %d lookups done, false positive rate %.4f"
+                + " (expected %.4f)", processorName, getLookupsSkipped(), getLookups(), getFalsePositiveRate(),
+                filter.expectedFalsePositiveProbability());
+        ServiceHelper.stopService(delegate);
+    }
+
+    private boolean insert(String key) {
+        try {
+            transactionStrategy.executeInTransaction(() -> {
+                EntityManager entityManager = entityManagerFactory.createEntityManager();
+                try {
+                    if (delegate.isJoinTransaction()) {
+                        entityManager.joinTransaction();
+                    }
+                    MessageProcessed processed = new MessageProcessed();
+                    processed.setProcessorName(processorName);
+                    processed.setMessageId(key);
+                    processed.setCreatedAt(new Date());
+                    entityManager.persist(processed);
+                    entityManager.flush();
+                } finally {
+                    entityManager.close();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            // Most likely a unique constraint violation as another instance stored the same message ID
+            if (delegate.contains(key)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.camel.Handler;
+import org.apache.camel.component.jpa.TransactionStrategy;
+import org.jboss.logging.Logger;
+
+/**
+ * Deletes the message IDs of a processor that were stored more than a given time-to-live ago, so that the
+ * CAMEL_MESSAGEPROCESSED table and its indexes stop growing. The message IDs are deleted in batches, each one in its
+ * own transaction, so that a purge never holds locks on a large number of rows. A batch is a range of creation times,
+ * deleted with a single statement walking the (processorName, createdAt) index. The range ends at the creation time of
+ * the message ID following the batch, so that it holds at most the batch size of message IDs, unless more than the
+ * batch size of them were stored at the very same instant.
+ *
+ * An expired message ID is still reported as a duplicate until the next purge deletes it.
+ */
+public class MessageIdPurger {
+
+    private static final Logger LOG = Logger.getLogger(MessageIdPurger.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionStrategy transactionStrategy;
+    private final String processorName;
+    private final Duration timeToLive;
+    private final int batchSize;
+    private boolean joinTransaction = true;
+
+    public MessageIdPurger(EntityManagerFactory entityManagerFactory, TransactionStrategy transactionStrategy,
+            String processorName, Duration timeToLive, int batchSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionStrategy = transactionStrategy;
+        this.processorName = processorName;
+        this.timeToLive = timeToLive;
+        this.batchSize = batchSize;
+    }
+
+    public void setJoinTransaction(boolean joinTransaction) {
+        this.joinTransaction = joinTransaction;
+    }
+
+    /**
+     * Deletes the message IDs that have expired by now, and returns how many were deleted.
+     */
+    @Handler
+    public int purgeExpired() {
+        return purgeExpired(Instant.now());
+    }
+
+    /**
+     * Deletes the message IDs that have expired at the given instant, and returns how many were deleted.
+     */
+    public int purgeExpired(Instant now) {
+        long start = System.currentTimeMillis();
+        Date expiredBefore = Date.from(now.minus(timeToLive));
+        AtomicInteger purged = new AtomicInteger();
+        boolean more;
+        do {
+            more = deleteBatch(expiredBefore, purged);
+        } while (more);
+
+        LOG.debugf("Purged %d message IDs of processor %s stored before %s in %d ms", purged, processorName,
+                expiredBefore, System.currentTimeMillis() - start);
+        return purged.get();
+    }
+
+    /**
+     * Deletes the next batch of expired message IDs, adds how many were deleted to the given count, and returns whether
+     * more expired message IDs are left.
+     */
+    private boolean deleteBatch(Date expiredBefore, AtomicInteger purged) {
+        boolean[] more = new boolean[1];
+        transactionStrategy.executeInTransaction(() -> {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                if (joinTransaction) {
+                    entityManager.joinTransaction();
+                }
+                // The creation time of the first expired message ID that does not fit in this batch
+                Date batchEnd = entityManager
+                        .createQuery("SELECT x.createdAt FROM MessageProcessed x"
+                                + " WHERE x.processorName = :processorName AND x.createdAt < :createdBefore"
+                                + " ORDER BY x.createdAt", Date.class)
+                        .setParameter("processorName", processorName)
+                        .setParameter("createdBefore", expiredBefore)
+                        .setFirstResult(batchSize)
+                        .setMaxResults(1)
+                        .getResultStream()
+                        .findFirst()
+                        .orElse(null);
+                if (batchEnd == null) {
+                    purged.addAndGet(delete(entityManager, "x.createdAt < :createdBefore", expiredBefore));
+                    return;
+                }
+                int deleted = delete(entityManager, "x.createdAt < :createdBefore", batchEnd);
+                if (deleted == 0) {
+                    // All the message IDs of the batch were created at the same instant, delete them at once
+                    deleted = delete(entityManager, "x.createdAt <= :createdBefore", batchEnd);
+                }
+                purged.addAndGet(deleted);
+                more[0] = true;
+            } finally {
+                entityManager.close();
+            }
+        });
+        return more[0];
+    }
+
+    private int delete(EntityManager entityManager, String createdAtCondition, Date createdBefore) {
+        return entityManager
+                .createQuery("DELETE FROM MessageProcessed x WHERE x.processorName = :processorName AND "
+                        + createdAtCondition)
+                .setParameter("processorName", processorName)
+                .setParameter("createdBefore", createdBefore)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,23 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--      http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Optional migration, applied only when db/partitioning is added to quarkus.flyway.locations.
+-- Splits the table in one partition per processor name hash, so that the lookups and purges of a processor only
+-- touch its own, smaller, indexes. MariaDB requires the partitioning column in every unique key, hence the primary key
+-- change, the message IDs staying unique per processor name.
+ALTER TABLE CAMEL_MESSAGEPROCESSED DROP PRIMARY KEY, ADD PRIMARY KEY (id, processorName);
+ALTER TABLE CAMEL_MESSAGEPROCESSED PARTITION BY KEY (processorName) PARTITIONS 8;
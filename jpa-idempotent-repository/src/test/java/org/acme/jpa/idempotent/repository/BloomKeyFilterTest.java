@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomKeyFilterTest {
+
+    private static final Logger LOG = Logger.getLogger(BloomKeyFilterTest.class);
+
+    private static final int KEYS = 1_000_000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Test
+    public void falsePositiveRateShouldMatchTheConfiguredProbability() {
+        BloomKeyFilter filter = new BloomKeyFilter(KEYS, FALSE_POSITIVE_PROBABILITY);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put("stored-" + i);
+        }
+
+        for (int i = 0; i < KEYS; i++) {
+            assertTrue(filter.mightContain("stored-" + i), "A stored key must never be reported as new");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (filter.mightContain("new-" + i)) {
+                falsePositives++;
+            }
+        }
+        double falsePositiveRate = (double) falsePositives / KEYS;
+        LOG.infof("False positive rate %.4f for %d keys (expected %.4f), %.2f%% of the lookups of new keys avoided",
+                falsePositiveRate, KEYS, filter.expectedFalsePositiveProbability(), 100 * (1 - falsePositiveRate));
+
+        assertTrue(falsePositiveRate < 1.5 * FALSE_POSITIVE_PROBABILITY,
+                "False positive rate " + falsePositiveRate + " is too high");
+    }
+}
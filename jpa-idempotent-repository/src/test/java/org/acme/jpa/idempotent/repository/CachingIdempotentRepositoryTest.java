@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.support.service.ServiceSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingIdempotentRepositoryTest {
+
+    private StoredKeys database;
+    private CachingIdempotentRepository repository;
+
+    @BeforeEach
+    public void startRepository() {
+        database = new StoredKeys();
+        repository = new CachingIdempotentRepository(database, 100, Duration.ofMinutes(10));
+        repository.start();
+    }
+
+    @AfterEach
+    public void stopRepository() {
+        repository.stop();
+    }
+
+    @Test
+    public void duplicateShouldBeAnsweredFromTheCache() {
+        assertTrue(repository.add("key"));
+        assertEquals(1, database.calls.get());
+
+        assertFalse(repository.add("key"));
+        assertTrue(repository.contains("key"));
+        assertEquals(1, database.calls.get(), "A cached key must not be looked up in the database");
+    }
+
+    @Test
+    public void keyStoredByAnotherInstanceShouldBeLookedUpAndCached() {
+        database.keys.add("key");
+
+        assertTrue(repository.contains("key"));
+        assertEquals(1, database.calls.get());
+        assertFalse(repository.add("key"));
+        assertEquals(1, database.calls.get());
+    }
+
+    @Test
+    public void absentKeyShouldNotBeCached() {
+        assertFalse(repository.contains("key"));
+        // Another instance stores the key, the cache must not keep answering that it is absent
+        database.keys.add("key");
+
+        assertTrue(repository.contains("key"));
+        assertFalse(repository.add("key"));
+        assertEquals(2, database.calls.get());
+    }
+
+    @Test
+    public void removeShouldInvalidateTheCachedKey() {
+        repository.add("key");
+
+        assertTrue(repository.remove("key"));
+        assertFalse(repository.contains("key"));
+        assertTrue(repository.add("key"));
+    }
+
+    @Test
+    public void clearShouldInvalidateTheCachedKeys() {
+        repository.add("key");
+        repository.add("other-key");
+
+        repository.clear();
+        assertFalse(repository.contains("key"));
+        assertFalse(repository.contains("other-key"));
+    }
+
+    @Test
+    public void expiredKeyShouldBeLookedUpAgain() throws InterruptedException {
+        repository.stop();
+        repository = new CachingIdempotentRepository(database, 100, Duration.ofMillis(1));
+        repository.start();
+
+        repository.add("key");
+        Thread.sleep(10);
+        assertTrue(repository.contains("key"));
+        assertEquals(2, database.calls.get());
+    }
+
+    /**
+     * Stands in for the database, counting the calls that would be round trips to it.
+     */
+    static class StoredKeys extends ServiceSupport implements IdempotentRepository {
+
+        final Set<String> keys = ConcurrentHashMap.newKeySet();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public boolean add(String key) {
+            calls.incrementAndGet();
+            return keys.add(key);
+        }
+
+        @Override
+        public boolean contains(String key) {
+            calls.incrementAndGet();
+            return keys.contains(key);
+        }
+
+        @Override
+        public boolean remove(String key) {
+            calls.incrementAndGet();
+            return keys.remove(key);
+        }
+
+        @Override
+        public boolean confirm(String key) {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            calls.incrementAndGet();
+            keys.clear();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the same checks with the idempotency keys being digests of the file contents, and checks that the digests,
+ * rather than the contents, are stored.
+ */
+@QuarkusTest
+@TestProfile(DigestKeyJpaIdempotentRepositoryTest.DigestKeyProfile.class)
+@QuarkusTestResource(JpaIdempotentRepositoryTestResource.class)
+public class DigestKeyJpaIdempotentRepositoryTest extends JpaIdempotentRepositoryTest {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    public void storedMessageIdsShouldBeDigestsOfTheContent() throws Exception {
+        Set<String> expected = Set.of(sha256("1"), sha256("3"), sha256("5"));
+        await().atMost(30L, TimeUnit.SECONDS).pollDelay(500, TimeUnit.MILLISECONDS)
+                .until(() -> storedMessageIds().containsAll(expected));
+
+        for (String messageId : storedMessageIds()) {
+            // Hexadecimal SHA-256 digests, whatever the size of the file they stand for
+            assertTrue(messageId.matches("[0-9a-f]{64}"), messageId + " is not a SHA-256 digest");
+        }
+    }
+
+    private Set<String> storedMessageIds() throws SQLException {
+        Set<String> messageIds = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT messageId FROM CAMEL_MESSAGEPROCESSED")) {
+            while (rs.next()) {
+                messageIds.add(rs.getString(1));
+            }
+        }
+        return messageIds;
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static class DigestKeyProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "idempotent.key.mode", "digest",
+                    // The database may be shared with the other tests, whose message IDs are the raw contents
+                    "quarkus.flyway.clean-at-start", "true");
+        }
+    }
+}
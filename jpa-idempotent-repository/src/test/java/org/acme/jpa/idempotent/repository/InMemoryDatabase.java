@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import org.apache.camel.processor.idempotent.jpa.MessageProcessed;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+/**
+ * Bootstraps Hibernate without Quarkus, for the tests and benchmarks that run the repositories against an in-memory
+ * H2 database.
+ */
+public final class InMemoryDatabase {
+
+    private InMemoryDatabase() {
+    }
+
+    /**
+     * Creates the {@link MessageProcessed} table in the database of the given H2 URL, which is dropped again when the
+     * returned factory is closed.
+     */
+    public static SessionFactory createEntityManagerFactory(String url) {
+        return new Configuration()
+                .addAnnotatedClass(MessageProcessed.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, url)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                // Each statement commits on its own, there is no transaction manager outside of Quarkus
+                .setProperty(AvailableSettings.AUTOCOMMIT, "true")
+                .setProperty(AvailableSettings.ALLOW_UPDATE_OUTSIDE_TRANSACTION, "true")
+                .buildSessionFactory();
+    }
+}
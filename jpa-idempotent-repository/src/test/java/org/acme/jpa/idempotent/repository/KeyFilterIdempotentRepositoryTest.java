@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.camel.component.jpa.TransactionStrategy;
+import org.apache.camel.processor.idempotent.jpa.JpaMessageIdRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two repositories on the same database, standing in for two application instances storing the message IDs of
+ * the same processor.
+ */
+public class KeyFilterIdempotentRepositoryTest {
+
+    private static final String PROCESSOR_NAME = "key-filter-test";
+
+    private final AtomicBoolean failNextTransaction = new AtomicBoolean();
+    private EntityManagerFactory entityManagerFactory;
+    private KeyFilterIdempotentRepository instance;
+    private KeyFilterIdempotentRepository otherInstance;
+
+    @BeforeEach
+    public void startInstances() {
+        entityManagerFactory = InMemoryDatabase
+                .createEntityManagerFactory("jdbc:h2:mem:key-filter;DB_CLOSE_DELAY=-1");
+        instance = newInstance(false);
+        otherInstance = newInstance(false);
+    }
+
+    @AfterEach
+    public void stopInstances() {
+        instance.stop();
+        otherInstance.stop();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void keyStoredByAnotherInstanceShouldBeReportedAsDuplicate() {
+        assertTrue(otherInstance.add("key"));
+
+        // The filter of this instance was loaded before the key was stored, the insert hits the unique constraint
+        assertFalse(instance.add("key"));
+        assertEquals(1, instance.getLookupsSkipped());
+    }
+
+    @Test
+    public void keyStoredByAnotherInstanceShouldBeLookedUp() {
+        assertTrue(otherInstance.add("key"));
+
+        assertTrue(instance.contains("key"));
+        assertFalse(instance.contains("other-key"));
+        assertEquals(2, instance.getLookups());
+
+        // The key found in the database was put in the filter, so the next add looks it up instead of inserting it
+        assertFalse(instance.add("key"));
+        assertEquals(0, instance.getLookupsSkipped());
+    }
+
+    @Test
+    public void singleWriterShouldTrustTheFilter() {
+        instance.stop();
+        instance = newInstance(true);
+
+        assertTrue(instance.add("key"));
+        assertTrue(instance.contains("key"));
+        assertFalse(instance.contains("other-key"));
+        assertEquals(1, instance.getLookups());
+        assertEquals(2, instance.getLookupsSkipped());
+    }
+
+    @Test
+    public void failedInsertOfNewKeyShouldBeRethrown() {
+        failNextTransaction.set(true);
+
+        // The key is not stored, so the failure was not a unique constraint violation
+        assertThrows(IllegalStateException.class, () -> instance.add("key"));
+        assertFalse(instance.contains("key"));
+    }
+
+    private KeyFilterIdempotentRepository newInstance(boolean singleWriter) {
+        TransactionStrategy transactionStrategy = runnable -> {
+            if (failNextTransaction.compareAndSet(true, false)) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            runnable.run();
+        };
+        JpaMessageIdRepository jpaMessageIdRepository = new JpaMessageIdRepository(entityManagerFactory,
+                transactionStrategy, PROCESSOR_NAME);
+        jpaMessageIdRepository.setJoinTransaction(false);
+        KeyFilterIdempotentRepository repository = new KeyFilterIdempotentRepository(jpaMessageIdRepository,
+                entityManagerFactory, transactionStrategy, new BloomKeyFilter(1000, 0.01), singleWriter);
+        repository.start();
+        return repository;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.apache.camel.component.jpa.TransactionStrategy;
+import org.apache.camel.processor.idempotent.jpa.JpaMessageIdRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stores message IDs, one round per simulated hour, against an in-memory H2 database, and checks that each purge
+ * deletes the expired ones, and only them, so that the table size is bounded by the time-to-live. The lookup latency
+ * of a purged table is measured by the {@code MessageIdLookupBenchmark}.
+ */
+public class MessageIdPurgerTest {
+
+    private static final String URL = "jdbc:h2:mem:purge;DB_CLOSE_DELAY=-1";
+    private static final String PROCESSOR_NAME = "purgeTest";
+    private static final String OTHER_PROCESSOR_NAME = "otherPurgeTest";
+    private static final int ROUNDS = 8;
+    private static final int KEYS_PER_ROUND = 2_000;
+    private static final int BATCH_SIZE = 300;
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(2);
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private SessionFactory entityManagerFactory;
+    private JdbcDataSource dataSource;
+    private JpaMessageIdRepository repository;
+    private MessageIdPurger purger;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        entityManagerFactory = InMemoryDatabase.createEntityManagerFactory(URL);
+        dataSource = new JdbcDataSource();
+        dataSource.setURL(URL);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            // Same index as the V1.0.1 Flyway migration
+            statement.execute("CREATE INDEX message_processed_created_at_index"
+                    + " ON CAMEL_MESSAGEPROCESSED (processorName, createdAt)");
+        }
+
+        TransactionStrategy transactionStrategy = Runnable::run;
+        repository = new JpaMessageIdRepository(entityManagerFactory, transactionStrategy, PROCESSOR_NAME);
+        repository.setJoinTransaction(false);
+        repository.start();
+        purger = new MessageIdPurger(entityManagerFactory, transactionStrategy, PROCESSOR_NAME, TIME_TO_LIVE,
+                BATCH_SIZE);
+        purger.setJoinTransaction(false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.stop();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void purgeShouldOnlyDeleteExpiredMessageIds() throws SQLException {
+        // Expired for a long time, but stored by another processor
+        store(OTHER_PROCESSOR_NAME, 0, START, 0);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Instant now = START.plus(round, ChronoUnit.HOURS);
+            // One message ID per millisecond, so that a batch ends in the middle of a round
+            store(PROCESSOR_NAME, round, now, 1);
+
+            // The round stored TIME_TO_LIVE ago is not expired yet, the one before it is
+            int expiredRound = round - (int) TIME_TO_LIVE.toHours() - 1;
+            assertEquals(expiredRound >= 0 ? KEYS_PER_ROUND : 0, purger.purgeExpired(now));
+
+            int firstLiveRound = Math.max(0, expiredRound + 1);
+            assertEquals((long) (round - firstLiveRound + 1) * KEYS_PER_ROUND, rowCount(PROCESSOR_NAME),
+                    "Only the message IDs stored within the time-to-live must be left");
+            if (expiredRound >= 0) {
+                assertFalse(repository.contains(key(expiredRound, KEYS_PER_ROUND - 1)));
+            }
+            assertTrue(repository.contains(key(firstLiveRound, 0)));
+            assertTrue(repository.contains(key(round, KEYS_PER_ROUND - 1)));
+        }
+        assertEquals(KEYS_PER_ROUND, rowCount(OTHER_PROCESSOR_NAME));
+    }
+
+    @Test
+    public void messageIdsStoredAtTheSameInstantShouldBePurgedTogether() throws SQLException {
+        // More message IDs than a batch holds, all of them stored at the same instant
+        store(PROCESSOR_NAME, 0, START, 0);
+
+        assertEquals(KEYS_PER_ROUND, purger.purgeExpired(START.plus(TIME_TO_LIVE).plusMillis(1)));
+        assertEquals(0, rowCount(PROCESSOR_NAME));
+    }
+
+    private void store(String processorName, int round, Instant now, int millisBetweenKeys) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("INSERT INTO CAMEL_MESSAGEPROCESSED"
+                        + " (id, processorName, messageId, createdAt) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < KEYS_PER_ROUND; i++) {
+                // Keep clear of the ids allocated by the sequence
+                statement.setLong(1, (processorName.equals(PROCESSOR_NAME) ? 1_000_000_000L : 2_000_000_000L)
+                        + (long) round * KEYS_PER_ROUND + i);
+                statement.setString(2, processorName);
+                statement.setString(3, key(round, i));
+                statement.setTimestamp(4, Timestamp.from(now.plusMillis((long) i * millisBetweenKeys)));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private long rowCount(String processorName) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection
+                        .prepareStatement("SELECT COUNT(*) FROM CAMEL_MESSAGEPROCESSED WHERE processorName = ?")) {
+            statement.setString(1, processorName);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static String key(int round, int i) {
+        return round + "-" + i;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.acme.jpa.idempotent.repository.BloomKeyFilter;
+import org.acme.jpa.idempotent.repository.CachingIdempotentRepository;
+import org.acme.jpa.idempotent.repository.InMemoryDatabase;
+import org.acme.jpa.idempotent.repository.KeyFilterIdempotentRepository;
+import org.apache.camel.component.jpa.TransactionStrategy;
+import org.apache.camel.processor.idempotent.jpa.JpaMessageIdRepository;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.support.service.ServiceHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency and throughput of the idempotent consumer adding a key that is already stored, and a new key,
+ * with the plain JPA repository, with the near-cache in front of it and with the Bloom filter in front of it. The
+ * database is an in-memory H2 one, so that the cost of a database round trip is a lower bound of what a networked
+ * database gives. The number of database lookups avoided by the Bloom filter and its false positive rate are logged
+ * at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class IdempotentRepositoryBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    @Param({ "jpa", "cache", "key-filter" })
+    String repositoryType;
+
+    private final AtomicLong newKeys = new AtomicLong(KEYS);
+    private EntityManagerFactory entityManagerFactory;
+    private IdempotentRepository repository;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        entityManagerFactory = InMemoryDatabase
+                .createEntityManagerFactory("jdbc:h2:mem:idempotent;DB_CLOSE_DELAY=-1");
+        TransactionStrategy transactionStrategy = Runnable::run;
+
+        JpaMessageIdRepository jpaMessageIdRepository = new JpaMessageIdRepository(entityManagerFactory,
+                transactionStrategy, "benchmark");
+        jpaMessageIdRepository.setJoinTransaction(false);
+        ServiceHelper.startService(jpaMessageIdRepository);
+        for (int i = 0; i < KEYS; i++) {
+            jpaMessageIdRepository.add(key(i));
+        }
+
+        switch (repositoryType) {
+        case "cache":
+            repository = new CachingIdempotentRepository(jpaMessageIdRepository, KEYS, Duration.ofMinutes(10));
+            break;
+        case "key-filter":
+            repository = new KeyFilterIdempotentRepository(jpaMessageIdRepository, entityManagerFactory,
+                    transactionStrategy, new BloomKeyFilter(10_000_000, 0.01), false);
+            break;
+        default:
+            repository = jpaMessageIdRepository;
+        }
+        ServiceHelper.startService(repository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Stopping the key filter repository logs its lookup statistics
+        ServiceHelper.stopService(repository);
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public boolean duplicateCheck() {
+        return repository.add(key(ThreadLocalRandom.current().nextInt(KEYS)));
+    }
+
+    @Benchmark
+    public boolean newKey() {
+        return repository.add(key(newKeys.getAndIncrement()));
+    }
+
+    private static String key(long i) {
+        return Long.toString(i);
+    }
+}
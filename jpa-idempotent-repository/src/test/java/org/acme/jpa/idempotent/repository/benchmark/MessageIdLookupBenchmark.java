@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.jpa.idempotent.repository.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.jpa.idempotent.repository.InMemoryDatabase;
+import org.acme.jpa.idempotent.repository.MessageIdPurger;
+import org.apache.camel.component.jpa.TransactionStrategy;
+import org.apache.camel.processor.idempotent.jpa.JpaMessageIdRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of looking up a recent message ID once 2.5 million message IDs were stored, one batch per
+ * simulated hour, with and without purging the expired ones after each batch. With the purge, the table only holds the
+ * message IDs of the last {@code TIME_TO_LIVE} hours, whatever the number of message IDs stored overall.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class MessageIdLookupBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:purge-benchmark;DB_CLOSE_DELAY=-1";
+    private static final String PROCESSOR_NAME = "benchmark";
+    private static final int ROUNDS = 10;
+    private static final int KEYS_PER_ROUND = 250_000;
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(2);
+
+    @Param({ "true", "false" })
+    boolean purge;
+
+    private SessionFactory entityManagerFactory;
+    private JpaMessageIdRepository repository;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        entityManagerFactory = InMemoryDatabase.createEntityManagerFactory(URL);
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(URL);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            // Same index as the V1.0.1 Flyway migration
+            statement.execute("CREATE INDEX message_processed_created_at_index"
+                    + " ON CAMEL_MESSAGEPROCESSED (processorName, createdAt)");
+        }
+
+        TransactionStrategy transactionStrategy = Runnable::run;
+        repository = new JpaMessageIdRepository(entityManagerFactory, transactionStrategy, PROCESSOR_NAME);
+        repository.setJoinTransaction(false);
+        repository.start();
+        MessageIdPurger purger = new MessageIdPurger(entityManagerFactory, transactionStrategy, PROCESSOR_NAME,
+                TIME_TO_LIVE, 10_000);
+        purger.setJoinTransaction(false);
+
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        for (int round = 0; round < ROUNDS; round++) {
+            Instant now = start.plus(round, ChronoUnit.HOURS);
+            store(dataSource, round, now);
+            if (purge) {
+                purger.purgeExpired(now);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.stop();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public boolean lookupRecentKey() {
+        return repository.contains(key(ROUNDS - 1, ThreadLocalRandom.current().nextInt(KEYS_PER_ROUND)));
+    }
+
+    private static void store(JdbcDataSource dataSource, int round, Instant now) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("INSERT INTO CAMEL_MESSAGEPROCESSED"
+                        + " (id, processorName, messageId, createdAt) VALUES (?, ?, ?, ?)")) {
+            Timestamp createdAt = Timestamp.from(now);
+            for (int i = 0; i < KEYS_PER_ROUND; i++) {
+                // Keep clear of the ids allocated by the sequence
+                statement.setLong(1, 1_000_000_000L + (long) round * KEYS_PER_ROUND + i);
+                statement.setString(2, PROCESSOR_NAME);
+                statement.setString(3, key(round, i));
+                statement.setTimestamp(4, createdAt);
+                statement.addBatch();
+                if (i % 10_000 == 9_999) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static String key(int round, int i) {
+        return round + "-" + i;
+    }
+}
@@ -26,23 +26,30 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "audit_log")
 @NamedQueries({
-        @NamedQuery(name = "getAuditLog", query = "select al from AuditLog al")
+        @NamedQuery(name = "getAuditLogPage", query = "select al from AuditLog al where al.id > :afterId order by al.id")
 })
 @Named("auditLog")
 @ApplicationScoped
 @RegisterForReflection
 public class AuditLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids are allocated by blocks from a sequence, so that Hibernate can batch the inserts, which IDENTITY prevents
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_seq")
+    @SequenceGenerator(name = "audit_log_seq", sequenceName = "audit_log_seq", allocationSize = 50)
     @Column(name = "id")
     private long id;
     private String message;
 
+    public long getId() {
+        return id;
+    }
+
     public String getMessage() {
         return message;
     }
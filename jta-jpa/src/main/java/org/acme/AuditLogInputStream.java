@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+
+/**
+ * {@link InputStream} that renders the audit logs of a {@link ScrollableResults} while it is read, in the same format as
+ * a list of audit logs converted to a String. The session and its cursor are released once the last audit log has been
+ * read, when the stream is closed, or on the first error.
+ */
+public class AuditLogInputStream extends InputStream {
+    private final StatelessSession session;
+    private final ScrollableResults<AuditLog> results;
+    private byte[] row = { '[' };
+    private int position;
+    private boolean firstRow = true;
+    private boolean closed;
+
+    public AuditLogInputStream(StatelessSession session, ScrollableResults<AuditLog> results) {
+        this.session = session;
+        this.results = results;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextRow() ? row[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextRow()) {
+            return -1;
+        }
+        int read = Math.min(len, row.length - position);
+        System.arraycopy(row, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                results.close();
+            } finally {
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Renders the next audit log once the current one has been read, and returns false at the end of the stream.
+     */
+    private boolean nextRow() throws IOException {
+        while (position == row.length) {
+            if (closed) {
+                return false;
+            }
+            try {
+                String next;
+                if (results.next()) {
+                    next = (firstRow ? "" : ", ") + results.get();
+                    firstRow = false;
+                } else {
+                    close();
+                    next = "]";
+                }
+                row = next.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            } catch (RuntimeException e) {
+                close();
+                throw new IOException(e);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.io.InputStream;
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.apache.camel.Exchange;
+import org.apache.camel.Header;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+/**
+ * Reads the audit logs by ascending ids, starting after the id given by the {@code afterId} header. The audit logs are
+ * either read by pages of at most {@code limit} rows, the id to resume from being returned in the
+ * {@value #NEXT_AFTER_ID} header, or streamed through a forward only cursor as they are written to the client. A
+ * limit below 1 is rejected with an {@link IllegalArgumentException}.
+ */
+@ApplicationScoped
+@Named("auditLogReader")
+public class AuditLogReader {
+    public static final String NEXT_AFTER_ID = "Next-After-Id";
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @ConfigProperty(name = "audit-log.read.limit.default")
+    int defaultLimit;
+
+    @ConfigProperty(name = "audit-log.read.limit.max")
+    int maxLimit;
+
+    @ConfigProperty(name = "audit-log.read.fetch-size")
+    int fetchSize;
+
+    public List<AuditLog> page(@Header("afterId") Long afterId, @Header("limit") Integer limit, Exchange exchange) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1 but was " + limit);
+        }
+        int maxResults = limit == null ? defaultLimit : Math.min(limit, maxLimit);
+        List<AuditLog> auditLogs;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            auditLogs = session.createNamedQuery("getAuditLogPage", AuditLog.class)
+                    .setParameter("afterId", afterId == null ? 0L : afterId)
+                    .setMaxResults(maxResults)
+                    .getResultList();
+        }
+        if (!auditLogs.isEmpty()) {
+            exchange.getMessage().setHeader(NEXT_AFTER_ID, auditLogs.get(auditLogs.size() - 1).getId());
+        }
+        return auditLogs;
+    }
+
+    public InputStream stream(@Header("afterId") Long afterId) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            ScrollableResults<AuditLog> results = session.createNamedQuery("getAuditLogPage", AuditLog.class)
+                    .setParameter("afterId", afterId == null ? 0L : afterId)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            return new AuditLogInputStream(session, results);
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+}
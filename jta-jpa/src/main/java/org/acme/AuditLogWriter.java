@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Writes the audit logs behind the transactions of the messages. The audit log of a message is queued once its
+ * transaction has committed, so that rolled back messages leave no trace, and a background thread inserts the queued
+ * audit logs with JDBC batches, one transaction per batch. A batch is flushed as soon as it holds
+ * {@code audit-log.write-behind.flush-size} audit logs, or {@code audit-log.write-behind.flush-interval} after its first
+ * audit log was queued.
+ *
+ * At most {@code audit-log.write-behind.queue-capacity} audit logs are queued or being flushed at once. The room for
+ * the audit log of a message is taken within its transaction: when the writer falls behind, the transaction waits up to
+ * {@code audit-log.write-behind.queue-timeout} for room, then fails and rolls back, so that the messages slow down
+ * instead of the queue filling the heap.
+ *
+ * The queued audit logs are not part of the XA transaction any more, they are lost should the application crash before
+ * they are flushed.
+ */
+@ApplicationScoped
+@Named("auditLogWriter")
+public class AuditLogWriter {
+    private static final Logger LOG = Logger.getLogger(AuditLogWriter.class);
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @ConfigProperty(name = "audit-log.write-behind.enabled")
+    boolean enabled;
+
+    @ConfigProperty(name = "audit-log.write-behind.flush-size")
+    int flushSize;
+
+    @ConfigProperty(name = "audit-log.write-behind.flush-interval")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "audit-log.write-behind.queue-capacity")
+    int queueCapacity;
+
+    @ConfigProperty(name = "audit-log.write-behind.queue-timeout")
+    Duration queueTimeout;
+
+    private BlockingQueue<AuditLog> queue;
+    // One permit per audit log that may be queued, released once the audit log is flushed or its transaction rolls back
+    private Semaphore room;
+    private volatile boolean running;
+    private Thread flusher;
+
+    void onStart(@Observes StartupEvent event) {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        room = new Semaphore(queueCapacity);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "AuditLogWriter");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Queues the audit log of the message once the current transaction commits. Fails, so that the transaction rolls
+     * back, when the queue has no room for it within the queue timeout.
+     */
+    public void write(String message) {
+        try {
+            if (!room.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("The audit log queue is full, " + queueCapacity
+                        + " audit logs are waiting to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for room in the audit log queue", e);
+        }
+
+        AuditLog auditLog = new AuditLog().createAuditLog(message);
+        try {
+            transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        // Never full, the permit taken above holds its room
+                        queue.add(auditLog);
+                    } else {
+                        room.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            room.release();
+            throw e;
+        }
+    }
+
+    private void flushLoop() {
+        List<AuditLog> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                fill(batch);
+            } catch (InterruptedException e) {
+                // Stopping, flush whatever is left
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> batch.forEach(entityManager::persist));
+                } catch (RuntimeException e) {
+                    LOG.errorf(e, "Could not write %d audit logs", batch.size());
+                }
+                room.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Waits for a full batch, or for the flush interval to elapse after the first audit log of the batch was queued.
+     */
+    private void fill(List<AuditLog> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < flushSize) {
+            queue.drainTo(batch, flushSize - batch.size());
+            if (batch.size() >= flushSize) {
+                return;
+            }
+            AuditLog next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+}
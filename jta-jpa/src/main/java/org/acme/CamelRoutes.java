@@ -18,38 +18,62 @@ package org.acme;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.TransactionManager;
+import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.ProcessorDefinition;
 import org.apache.camel.model.rest.RestParamType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class CamelRoutes extends RouteBuilder {
     @Inject
-    TransactionManager transactionManager;
+    XaMetrics xaMetrics;
+
+    @ConfigProperty(name = "audit-log.write-behind.enabled")
+    boolean auditLogWriteBehind;
 
     @Override
     public void configure() {
         rest("/messages")
                 .produces("text/plain")
                 .get()
+                .param().name("afterId").type(RestParamType.query).dataType("integer").required(false).endParam()
+                .param().name("limit").type(RestParamType.query).dataType("integer").required(false).endParam()
+                .param().name("stream").type(RestParamType.query).dataType("boolean").required(false).endParam()
                 .to("direct:messages")
                 .post("/{message}")
                 .param().name("message").type(RestParamType.path).dataType("string").endParam()
                 .to("direct:trans");
 
         from("direct:messages")
-                .to("jpa:org.acme.AuditLog?namedQuery=getAuditLog")
-                .convertBodyTo(String.class);
+                // A limit below 1 is a client error
+                .onException(IllegalArgumentException.class)
+                .handled(true)
+                .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(400))
+                .setBody(exceptionMessage())
+                .end()
+                .choice()
+                .when(header("stream").isEqualTo("true"))
+                .to("bean:auditLogReader?method=stream")
+                .otherwise()
+                .to("bean:auditLogReader?method=page")
+                .convertBodyTo(String.class)
+                .end();
 
-        from("direct:trans")
+        ProcessorDefinition<?> trans = from("direct:trans")
                 .transacted()
                 .setBody(simple("${headers.message}"))
                 .process(x -> {
                     DummyXAResource xaResource = new DummyXAResource("crash".equals(x.getIn().getBody(String.class)));
-                    transactionManager.getTransaction().enlistResource(xaResource);
-                })
-                .to("bean:auditLog?method=createAuditLog(${body})")
-                .to("jpa:org.acme.AuditLog")
+                    xaMetrics.enlist(xaResource);
+                });
+        if (auditLogWriteBehind) {
+            trans.to("bean:auditLogWriter?method=write(${body})");
+        } else {
+            trans.to("bean:auditLog?method=createAuditLog(${body})")
+                    .to("jpa:org.acme.AuditLog");
+        }
+        trans
                 .setBody(simple("${headers.message}"))
                 .choice()
                 .when(body().startsWith("fail"))
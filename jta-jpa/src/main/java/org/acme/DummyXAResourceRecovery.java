@@ -17,13 +17,13 @@
 package org.acme;
 
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
 
 import io.quarkus.runtime.Startup;
 import jakarta.annotation.PostConstruct;
@@ -53,8 +53,9 @@ public class DummyXAResourceRecovery implements XAResourceRecovery {
     public XAResource[] getXAResources() throws RuntimeException {
         List<DummyXAResource> resources = Collections.emptyList();
         try {
-            resources = getXAResourcesFromDirectory(DummyXAResource.LOG_DIR);
+            resources = getXAResourcesFromLog(DummyXAResource.LOG_DIR);
         } catch (IOException e) {
+            LOG.warn("Cannot read the prepare log", e);
         }
 
         if (!resources.isEmpty()) {
@@ -64,16 +65,12 @@ public class DummyXAResourceRecovery implements XAResourceRecovery {
         return resources.toArray(new XAResource[] {});
     }
 
-    private List<DummyXAResource> getXAResourcesFromDirectory(String directory) throws IOException {
+    List<DummyXAResource> getXAResourcesFromLog(String directory) throws IOException {
         List<DummyXAResource> resources = new ArrayList<>();
 
-        Files.newDirectoryStream(FileSystems.getDefault().getPath(directory), "*_").forEach(path -> {
-            try {
-                resources.add(new DummyXAResource(path.toFile()));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        for (Xid xid : PrepareLog.readPrepared(Paths.get(directory))) {
+            resources.add(new DummyXAResource(xid));
+        }
 
         return resources;
     }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+
+/**
+ * {@link XAResource} that times the prepare, commit and rollback calls of the resource it wraps, and counts the
+ * heuristic outcomes it reports.
+ */
+public class MeteredXAResource implements XAResource {
+    private final XAResource delegate;
+    private final XaMetrics metrics;
+
+    public MeteredXAResource(XAResource delegate, XaMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public int prepare(Xid xid) throws XAException {
+        long start = System.nanoTime();
+        try {
+            int vote = delegate.prepare(xid);
+            metrics.resourceCalled("prepare", vote == XA_RDONLY ? "read-only" : "ok", System.nanoTime() - start);
+            return vote;
+        } catch (XAException e) {
+            metrics.resourceCalled("prepare", "failed", System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    public void commit(Xid xid, boolean onePhase) throws XAException {
+        long start = System.nanoTime();
+        try {
+            delegate.commit(xid, onePhase);
+            metrics.resourceCalled("commit", "ok", System.nanoTime() - start);
+        } catch (XAException e) {
+            metrics.resourceCalled("commit", "failed", System.nanoTime() - start);
+            metrics.heuristic(e);
+            throw e;
+        }
+    }
+
+    public void rollback(Xid xid) throws XAException {
+        long start = System.nanoTime();
+        try {
+            delegate.rollback(xid);
+            metrics.resourceCalled("rollback", "ok", System.nanoTime() - start);
+        } catch (XAException e) {
+            metrics.resourceCalled("rollback", "failed", System.nanoTime() - start);
+            metrics.heuristic(e);
+            throw e;
+        }
+    }
+
+    public boolean isSameRM(XAResource xaResource) throws XAException {
+        if (xaResource instanceof MeteredXAResource) {
+            xaResource = ((MeteredXAResource) xaResource).delegate;
+        }
+        return delegate.isSameRM(xaResource);
+    }
+
+    public Xid[] recover(int flag) throws XAException {
+        return delegate.recover(flag);
+    }
+
+    public void start(Xid xid, int flags) throws XAException {
+        delegate.start(xid, flags);
+    }
+
+    public void end(Xid xid, int flags) throws XAException {
+        delegate.end(xid, flags);
+    }
+
+    public void forget(Xid xid) throws XAException {
+        delegate.forget(xid);
+    }
+
+    public int getTransactionTimeout() throws XAException {
+        return delegate.getTransactionTimeout();
+    }
+
+    public boolean setTransactionTimeout(int seconds) throws XAException {
+        return delegate.setTransactionTimeout(seconds);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.RollbackException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Micrometer meters of the XA transactions of the messages:
+ * <ul>
+ * <li>{@code xa.phase} times the {@code enlist} phase, the enlistment of the {@link DummyXAResource}, the
+ * {@code before-completion} phase, where the synchronizations flush the JPA persistence context, and the
+ * {@code two-phase-commit} phase, which prepares and commits every resource of the transaction and writes the
+ * transaction log</li>
+ * <li>{@code xa.resource} times the {@code prepare}, {@code commit} and {@code rollback} calls of the
+ * {@link DummyXAResource}, tagged with their {@code outcome}</li>
+ * <li>{@code xa.transactions} counts the completed transactions by {@code status}</li>
+ * <li>{@code xa.heuristics} counts the heuristic outcomes reported by the {@link DummyXAResource}</li>
+ * </ul>
+ * The completion phases are timed by a synchronization, which runs before the ones of the persistence context, and by an
+ * interposed synchronization, which runs after them.
+ */
+@ApplicationScoped
+public class XaMetrics {
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    TransactionManager transactionManager;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private Timer enlistTimer;
+    private Timer beforeCompletionTimer;
+    private Timer twoPhaseCommitTimer;
+
+    @PostConstruct
+    void init() {
+        enlistTimer = phaseTimer("enlist");
+        beforeCompletionTimer = phaseTimer("before-completion");
+        twoPhaseCommitTimer = phaseTimer("two-phase-commit");
+    }
+
+    /**
+     * Enlists the given resource in the transaction of the current thread, so that its prepare, commit and rollback
+     * calls are timed, and starts timing the completion of the transaction if it is not timed yet.
+     */
+    public void enlist(XAResource xaResource) throws SystemException, RollbackException {
+        Transaction transaction = transactionManager.getTransaction();
+        if (transactionSynchronizationRegistry.getResource(CompletionClock.class) == null) {
+            CompletionClock clock = new CompletionClock();
+            transactionSynchronizationRegistry.putResource(CompletionClock.class, clock);
+            transaction.registerSynchronization(clock.beforeCompletion());
+            transactionSynchronizationRegistry.registerInterposedSynchronization(clock.twoPhaseCommit());
+        }
+
+        long start = System.nanoTime();
+        transaction.enlistResource(new MeteredXAResource(xaResource, this));
+        enlistTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    void resourceCalled(String operation, String outcome, long duration) {
+        Timer.builder("xa.resource")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    void heuristic(XAException e) {
+        String outcome = heuristicOutcome(e.errorCode);
+        if (outcome != null) {
+            Counter.builder("xa.heuristics").tag("outcome", outcome).register(registry).increment();
+        }
+    }
+
+    static String heuristicOutcome(int errorCode) {
+        switch (errorCode) {
+        case XAException.XA_HEURCOM:
+            return "commit";
+        case XAException.XA_HEURRB:
+            return "rollback";
+        case XAException.XA_HEURMIX:
+            return "mixed";
+        case XAException.XA_HEURHAZ:
+            return "hazard";
+        default:
+            return null;
+        }
+    }
+
+    static String status(int status) {
+        switch (status) {
+        case Status.STATUS_COMMITTED:
+            return "committed";
+        case Status.STATUS_ROLLEDBACK:
+            return "rolled-back";
+        default:
+            return "unknown";
+        }
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("xa.phase").tag("phase", phase).register(registry);
+    }
+
+    /**
+     * Clock of the completion of a transaction, stored as a resource of the transaction.
+     */
+    private class CompletionClock {
+        private long beforeCompletionStart;
+        private long twoPhaseCommitStart;
+
+        Synchronization beforeCompletion() {
+            return new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    beforeCompletionStart = System.nanoTime();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                }
+            };
+        }
+
+        Synchronization twoPhaseCommit() {
+            return new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    twoPhaseCommitStart = System.nanoTime();
+                    if (beforeCompletionStart != 0) {
+                        beforeCompletionTimer.record(twoPhaseCommitStart - beforeCompletionStart, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // Rolled back transactions skip beforeCompletion
+                    if (twoPhaseCommitStart != 0) {
+                        twoPhaseCommitTimer.record(System.nanoTime() - twoPhaseCommitStart, TimeUnit.NANOSECONDS);
+                    }
+                    Counter.builder("xa.transactions").tag("status", status(status)).register(registry).increment();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.transaction.xa.Xid;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DummyXAResourceRecoveryTest {
+    private static final Logger LOG = Logger.getLogger(DummyXAResourceRecoveryTest.class);
+
+    private static final int IN_DOUBT = 100_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void shouldRecoverInDoubtXids() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try (PrepareLog log = new PrepareLog(directory, 1024 * 1024)) {
+            List<Future<?>> futures = new ArrayList<>();
+            // Every 11th transaction completes, so that the completion records are interleaved with the prepare records
+            // of the in-doubt ones, as the log holds in production
+            for (int i = 0; i < IN_DOUBT + IN_DOUBT / 10; i++) {
+                Xid xid = PrepareLogTest.xid(i);
+                boolean completed = i % 11 == 10;
+                futures.add(executor.submit(() -> {
+                    log.prepare(xid);
+                    if (completed) {
+                        log.complete(xid);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long start = System.nanoTime();
+        List<DummyXAResource> resources = new DummyXAResourceRecovery().getXAResourcesFromLog(directory.toString());
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(IN_DOUBT, resources.size());
+        LOG.infof("Recovered %d in-doubt Xids in %d ms", resources.size(), duration);
+    }
+}
@@ -24,6 +24,7 @@ import io.quarkus.test.junit.QuarkusTest;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 
 @QuarkusTest
@@ -42,6 +43,16 @@ public class JtaTest {
                 .then()
                 .statusCode(200)
                 .body(is("[{message=" + body + "}]"));
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("xa_phase_seconds_count{phase=\"enlist\"}"),
+                        containsString("xa_phase_seconds_count{phase=\"two-phase-commit\"}"),
+                        containsString("xa_resource_seconds_count{operation=\"prepare\",outcome=\"ok\"}"),
+                        containsString("xa_resource_seconds_count{operation=\"commit\",outcome=\"ok\"}"),
+                        containsString("xa_transactions_total{status=\"committed\"}"));
     }
 
     @Test
@@ -56,5 +67,12 @@ public class JtaTest {
                 .then()
                 .statusCode(200)
                 .body(is(result));
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("xa_resource_seconds_count{operation=\"rollback\",outcome=\"ok\"}"),
+                        containsString("xa_transactions_total{status=\"rolled-back\"}"));
     }
 }
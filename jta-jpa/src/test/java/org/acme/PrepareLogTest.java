@@ -0,0 +1,369 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrepareLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void completedXidsShouldNotBeRecovered() throws Exception {
+        try (PrepareLog log = new PrepareLog(directory, PrepareLog.DEFAULT_SEGMENT_SIZE)) {
+            log.prepare(xid(1));
+            log.prepare(xid(2));
+            log.prepare(xid(3));
+            log.complete(xid(1));
+            log.complete(xid(3));
+        }
+
+        assertEquals(Set.of(PrepareLog.key(xid(2))), keys(PrepareLog.readPrepared(directory)));
+    }
+
+    @Test
+    public void concurrentPreparesShouldBeCompacted() throws Exception {
+        Set<ByteBuffer> inDoubt = new HashSet<>();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try (PrepareLog log = new PrepareLog(directory, 4096)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                Xid xid = xid(i);
+                boolean completed = i % 100 != 0;
+                if (!completed) {
+                    inDoubt.add(PrepareLog.key(xid));
+                }
+                futures.add(executor.submit(() -> {
+                    log.prepare(xid);
+                    if (completed) {
+                        log.complete(xid);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(inDoubt, keys(PrepareLog.readPrepared(directory)));
+        // Only the manifest of the last checkpoint and the active segment are left
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void inDoubtXidsShouldSurviveRestarts() throws Exception {
+        try (PrepareLog log = new PrepareLog(directory, 4096)) {
+            log.prepare(xid(1));
+            log.prepare(xid(2));
+        }
+
+        try (PrepareLog log = new PrepareLog(directory, 4096)) {
+            for (int i = 3; i < 1000; i++) {
+                log.prepare(xid(i));
+                log.complete(xid(i));
+            }
+            log.complete(xid(1));
+        }
+        assertEquals(Set.of(PrepareLog.key(xid(2))), keys(PrepareLog.readPrepared(directory)));
+
+        try (PrepareLog log = new PrepareLog(directory, 4096)) {
+            log.complete(xid(2));
+        }
+        assertTrue(PrepareLog.readPrepared(directory).isEmpty());
+    }
+
+    @Test
+    public void readPreparedShouldNotMissXidsWhileTheFilesRoll() throws Exception {
+        // Not registered for its directory, so that readPrepared reads the files as another process would
+        try (PrepareLog log = new PrepareLog(directory, 4096)) {
+            assertInDoubtXidsReadWhileRolling(log);
+        }
+    }
+
+    @Test
+    public void readPreparedShouldNotMissXidsOfAnOpenLog() throws Exception {
+        try (PrepareLog log = PrepareLog.forDirectory(directory.toString())) {
+            assertInDoubtXidsReadWhileRolling(log);
+        }
+    }
+
+    @Test
+    public void prepareShouldFailOnceTheLogIsClosed() throws Exception {
+        PrepareLog log = new PrepareLog(directory, PrepareLog.DEFAULT_SEGMENT_SIZE);
+        log.close();
+
+        XAException e = assertThrows(XAException.class, () -> log.prepare(xid(1)));
+        assertEquals(XAException.XAER_RMERR, e.errorCode);
+    }
+
+    @Test
+    public void recordsWrittenAfterATornWriteShouldBeRecovered() throws Exception {
+        UnreliableDisk disk = new UnreliableDisk();
+        try (PrepareLog log = new PrepareLog(directory, PrepareLog.DEFAULT_SEGMENT_SIZE, 1000, disk::open)) {
+            log.prepare(xid(1));
+            disk.full = true;
+            XAException e = assertThrows(XAException.class, () -> log.prepare(xid(2)));
+            assertEquals(XAException.XAER_RMERR, e.errorCode);
+            disk.full = false;
+            log.prepare(xid(3));
+        }
+
+        assertEquals(Set.of(PrepareLog.key(xid(1)), PrepareLog.key(xid(3))),
+                keys(PrepareLog.readPrepared(directory)));
+    }
+
+    @Test
+    public void failedPreparesShouldNotBeCheckpointed() throws Exception {
+        UnreliableDisk disk = new UnreliableDisk();
+        // Every batch fills a segment, so that each one is followed by a checkpoint of the Xids still prepared
+        try (PrepareLog log = new PrepareLog(directory, 1, 1000, disk::open)) {
+            disk.full = true;
+            assertThrows(XAException.class, () -> log.prepare(xid(1)));
+            disk.full = false;
+            log.prepare(xid(2));
+        }
+
+        assertEquals(Set.of(PrepareLog.key(xid(2))), keys(PrepareLog.readPrepared(directory)));
+    }
+
+    @Test
+    public void timedOutPreparesShouldBeCompletedByTheRollback() throws Exception {
+        UnreliableDisk disk = new UnreliableDisk();
+        try (PrepareLog log = new PrepareLog(directory, 1, 100, disk::open)) {
+            disk.stalled = new CountDownLatch(1);
+            try {
+                XAException e = assertThrows(XAException.class, () -> log.prepare(xid(1)));
+                assertEquals(XAException.XAER_RMERR, e.errorCode);
+                // The prepare record is still written once the disk catches up, then the completion record
+                log.complete(xid(1));
+            } finally {
+                disk.stalled.countDown();
+            }
+            log.prepare(xid(2));
+        }
+
+        assertEquals(Set.of(PrepareLog.key(xid(2))), keys(PrepareLog.readPrepared(directory)));
+    }
+
+    private void assertInDoubtXidsReadWhileRolling(PrepareLog log) throws Exception {
+        Set<ByteBuffer> inDoubt = new HashSet<>();
+        for (int i = 1; i <= 10; i++) {
+            log.prepare(xid(-i));
+            inDoubt.add(PrepareLog.key(xid(-i)));
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int first = t * 1_000_000;
+                futures.add(executor.submit(() -> {
+                    // Completed transactions fill the 4 KiB segments, so that the log keeps rolling and checkpointing
+                    for (int i = first; !stop.get(); i++) {
+                        log.prepare(xid(i));
+                        log.complete(xid(i));
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 500; i++) {
+                Set<ByteBuffer> prepared = keys(PrepareLog.readPrepared(directory));
+                assertTrue(prepared.containsAll(inDoubt), "In-doubt Xids missing from " + prepared.size() + " Xids");
+            }
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            stop.set(true);
+            executor.shutdown();
+        }
+    }
+
+    private static Set<ByteBuffer> keys(List<Xid> xids) {
+        return xids.stream().map(PrepareLog::key).collect(Collectors.toSet());
+    }
+
+    static Xid xid(int id) {
+        byte[] globalTransactionId = ("gtrid-" + id).getBytes(StandardCharsets.UTF_8);
+        byte[] branchQualifier = ("bqual-" + id).getBytes(StandardCharsets.UTF_8);
+        return new Xid() {
+            @Override
+            public int getFormatId() {
+                return 131077;
+            }
+
+            @Override
+            public byte[] getGlobalTransactionId() {
+                return globalTransactionId;
+            }
+
+            @Override
+            public byte[] getBranchQualifier() {
+                return branchQualifier;
+            }
+        };
+    }
+
+    /**
+     * Opens segments whose writes fail half-way through while the disk is full, and block while it is stalled.
+     */
+    private static final class UnreliableDisk {
+        volatile boolean full;
+        volatile CountDownLatch stalled = new CountDownLatch(0);
+
+        FileChannel open(Path segment) throws IOException {
+            FileChannel file = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            return new FileChannel() {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    try {
+                        stalled.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    if (full) {
+                        ByteBuffer half = src.duplicate();
+                        half.limit(half.position() + half.remaining() / 2);
+                        file.write(half);
+                        throw new IOException("No space left on device");
+                    }
+                    return file.write(src);
+                }
+
+                @Override
+                public long size() throws IOException {
+                    return file.size();
+                }
+
+                @Override
+                public FileChannel truncate(long size) throws IOException {
+                    file.truncate(size);
+                    return this;
+                }
+
+                @Override
+                public void force(boolean metaData) throws IOException {
+                    file.force(metaData);
+                }
+
+                @Override
+                protected void implCloseChannel() throws IOException {
+                    file.close();
+                }
+
+                @Override
+                public int read(ByteBuffer dst) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long read(ByteBuffer[] dsts, int offset, int length) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long write(ByteBuffer[] srcs, int offset, int length) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long position() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public FileChannel position(long newPosition) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long transferTo(long position, long count, WritableByteChannel target) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long transferFrom(ReadableByteChannel src, long position, long count) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read(ByteBuffer dst, long position) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int write(ByteBuffer src, long position) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public MappedByteBuffer map(MapMode mode, long position, long size) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public FileLock lock(long position, long size, boolean shared) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public FileLock tryLock(long position, long size, boolean shared) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+@QuarkusTest
+@TestProfile(WriteBehindAuditLogTest.WriteBehindProfile.class)
+@QuarkusTestResource(H2DatabaseTestResource.class)
+public class WriteBehindAuditLogTest {
+    @Test
+    public void committedMessagesShouldBeWrittenBehind() {
+        String body = UUID.randomUUID().toString();
+
+        given().when().post("/api/messages/" + body)
+                .then()
+                .statusCode(200);
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> given()
+                .when().get("/api/messages")
+                .then()
+                .statusCode(200)
+                .body(containsString("{message=" + body + "}")));
+    }
+
+    @Test
+    public void rolledBackMessagesShouldNotBeWritten() throws InterruptedException {
+        String body = "fail-" + UUID.randomUUID();
+
+        given().when().post("/api/messages/" + body)
+                .then()
+                .statusCode(500);
+
+        // Leave the writer enough time to flush whatever it may have queued
+        Thread.sleep(1000);
+        given().when().get("/api/messages")
+                .then()
+                .statusCode(200)
+                .body(not(containsString(body)));
+    }
+
+    public static class WriteBehindProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("audit-log.write-behind.enabled", "true");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.benchmark;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+
+import org.acme.PrepareLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many transactions per second the {@code DummyXAResource} can prepare and commit concurrently, with the
+ * {@link PrepareLog} and with the former strategy, which wrote, synced and deleted one file per Xid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(1)
+public class PrepareLogBenchmark {
+
+    @Param({ "file-per-xid", "prepare-log" })
+    public String strategy;
+
+    private final AtomicLong ids = new AtomicLong();
+    private Path directory;
+    private PrepareLog log;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("prepare-log-benchmark");
+        if ("prepare-log".equals(strategy)) {
+            log = new PrepareLog(directory, PrepareLog.DEFAULT_SEGMENT_SIZE);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void prepareAndCommit() throws IOException, XAException {
+        long id = ids.incrementAndGet();
+        Xid xid = new BenchmarkXid(id);
+        if (log != null) {
+            log.prepare(xid);
+            log.complete(xid);
+        } else {
+            File file = directory.resolve(id + "_").toFile();
+            try (FileOutputStream out = new FileOutputStream(file);
+                    DataOutputStream data = new DataOutputStream(out)) {
+                data.writeInt(xid.getFormatId());
+                data.writeInt(xid.getGlobalTransactionId().length);
+                data.write(xid.getGlobalTransactionId());
+                data.writeInt(xid.getBranchQualifier().length);
+                data.write(xid.getBranchQualifier());
+                data.flush();
+                out.getFD().sync();
+            }
+            Files.delete(file.toPath());
+        }
+    }
+
+    private static final class BenchmarkXid implements Xid {
+        private final byte[] globalTransactionId;
+
+        BenchmarkXid(long id) {
+            globalTransactionId = ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+        }
+
+        @Override
+        public int getFormatId() {
+            return 131077;
+        }
+
+        @Override
+        public byte[] getGlobalTransactionId() {
+            return globalTransactionId;
+        }
+
+        @Override
+        public byte[] getBranchQualifier() {
+            return new byte[] { 1 };
+        }
+    }
+}
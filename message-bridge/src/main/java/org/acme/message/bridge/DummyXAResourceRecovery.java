@@ -17,18 +17,17 @@
 package org.acme.message.bridge;
 
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
 
 import io.quarkus.runtime.Startup;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.config.ConfigProvider;
 import org.jboss.logging.Logger;
 import org.jboss.tm.XAResourceRecovery;
 import org.jboss.tm.XAResourceRecoveryRegistry;
@@ -54,9 +53,9 @@ public class DummyXAResourceRecovery implements XAResourceRecovery {
     public XAResource[] getXAResources() throws RuntimeException {
         List<DummyXAResource> resources = Collections.emptyList();
         try {
-            resources = getXAResourcesFromDirectory(
-                    ConfigProvider.getConfig().getValue("dummy.resource.directory", String.class));
-        } catch (IOException ignored) {
+            resources = getXAResourcesFromLog(DummyXAResource.logDirectory());
+        } catch (IOException e) {
+            LOG.warn("Cannot read the prepare log", e);
         }
 
         if (!resources.isEmpty()) {
@@ -66,16 +65,12 @@ public class DummyXAResourceRecovery implements XAResourceRecovery {
         return resources.toArray(new XAResource[] {});
     }
 
-    private List<DummyXAResource> getXAResourcesFromDirectory(String directory) throws IOException {
+    List<DummyXAResource> getXAResourcesFromLog(String directory) throws IOException {
         List<DummyXAResource> resources = new ArrayList<>();
 
-        Files.newDirectoryStream(FileSystems.getDefault().getPath(directory), "*_").forEach(path -> {
-            try {
-                resources.add(new DummyXAResource(path.toFile()));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        for (Xid xid : PrepareLog.readPrepared(Paths.get(directory))) {
+            resources.add(new DummyXAResource(xid));
+        }
 
         return resources;
     }
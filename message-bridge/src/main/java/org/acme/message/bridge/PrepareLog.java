@@ -0,0 +1,669 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.acme.message.bridge;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Append-only log of the prepared {@link Xid}s of the {@link DummyXAResource}s, written to a sequence of segment files.
+ *
+ * A single writer thread appends the records: the prepare records of all the transactions waiting for it are written
+ * together and made durable with a single {@code fsync} (group commit), before their {@link #prepare(Xid)} calls
+ * return. The completion records, written on commit or rollback, do not wait for an {@code fsync}: should one of them
+ * be lost, recovery simply completes its transaction again.
+ *
+ * Once the active segment exceeds the segment size, a new segment is started and the log is checkpointed: the Xids
+ * still prepared are written to the {@value #MANIFEST} manifest, along with the segment and offset where the records
+ * that follow the checkpoint start, then the older segments are deleted. Recovery reads the manifest in a single
+ * sequential read, then only the records written since the checkpoint. The checkpoints are written by a thread of their
+ * own: the writer thread only copies the Xids still prepared, so that the prepares queued behind a roll do not wait for
+ * a large in-doubt backlog to be written and made durable.
+ *
+ * When a batch cannot be written, its records are cut off the active segment, or a new segment is started should that
+ * fail too, so that the incomplete records never hide the records written after them from recovery.
+ *
+ * {@link #readPrepared(Path)} asks the writer thread for the Xids still prepared when the log is open in this
+ * application, so that it never sees a roll or a checkpoint half done. Otherwise it reads the files, and reads them
+ * again should a checkpoint of another process have deleted a segment in the meantime.
+ */
+public class PrepareLog implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(PrepareLog.class);
+
+    public static final long DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+    /**
+     * How long {@link #prepare(Xid)} waits for its record to be made durable, before the prepare fails.
+     */
+    public static final long PREPARE_TIMEOUT_MILLIS = 30_000;
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String MANIFEST = "prepared.idx";
+
+    private static final byte PREPARED = 1;
+    private static final byte COMPLETED = 2;
+    private static final byte SNAPSHOT = 3;
+    private static final int READ_ATTEMPTS = 10;
+    private static final int MANIFEST_MAGIC = 0x58494458;
+    private static final int MAX_XID_SIZE = 3 * 4 + Xid.MAXGTRIDSIZE + Xid.MAXBQUALSIZE;
+
+    private static final Map<Path, PrepareLog> LOGS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long prepareTimeoutMillis;
+    private final SegmentOpener opener;
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final ExecutorService checkpointer;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Only accessed by the writer thread
+    private final Set<ByteBuffer> prepared = new LinkedHashSet<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+    private long activeId;
+    private FileChannel channel;
+    private long activeSize;
+
+    public PrepareLog(Path directory, long segmentSize) throws IOException {
+        this(directory, segmentSize, PREPARE_TIMEOUT_MILLIS, PrepareLog::openSegmentFile);
+    }
+
+    PrepareLog(Path directory, long segmentSize, long prepareTimeoutMillis, SegmentOpener opener) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.prepareTimeoutMillis = prepareTimeoutMillis;
+        this.opener = opener;
+        Files.createDirectories(directory);
+
+        long lastId = replay(directory, prepared, false);
+        openSegment(lastId + 1);
+        checkpoint(activeId, activeSize, prepared);
+
+        checkpointer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "PrepareLog-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer = new Thread(this::writeLoop, "PrepareLog");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the log of the given directory, shared by all the resources of the application.
+     */
+    public static PrepareLog forDirectory(String directory) {
+        return LOGS.computeIfAbsent(Paths.get(directory).toAbsolutePath(), path -> {
+            try {
+                return new PrepareLog(path, DEFAULT_SEGMENT_SIZE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open the prepare log in " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Records the given Xid as prepared, and returns once the record is durable. Fails with {@code XAER_RMERR} when the
+     * record cannot be written within {@value #PREPARE_TIMEOUT_MILLIS} ms, or when the log is closed.
+     */
+    public void prepare(Xid xid) throws XAException {
+        Request request = new Request(PREPARED, key(xid));
+        requests.add(request);
+        if (!writer.isAlive()) {
+            // Nothing will ever write the record, a record written anyway is completed when the transaction rolls back
+            LOG.error("Cannot write the prepare record of " + xid + ", the prepare log in " + directory + " is closed");
+            throw new XAException(XAException.XAER_RMERR);
+        }
+        try {
+            request.written.get(prepareTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XAException(XAException.XAER_RMFAIL);
+        } catch (ExecutionException e) {
+            LOG.error("Cannot write the prepare record of " + xid, e.getCause());
+            throw new XAException(XAException.XAER_RMERR);
+        } catch (TimeoutException e) {
+            // The record may still be written, the completion record of the rollback then follows it
+            LOG.error("The prepare record of " + xid + " was not written within " + prepareTimeoutMillis + " ms");
+            throw new XAException(XAException.XAER_RMERR);
+        }
+    }
+
+    /**
+     * Records the given Xid as completed, without waiting for the record to be written.
+     */
+    public void complete(Xid xid) {
+        requests.add(new Request(COMPLETED, key(xid)));
+    }
+
+    /**
+     * Reads the Xids still prepared in the log of the given directory, in the order they were prepared.
+     */
+    public static List<Xid> readPrepared(Path directory) throws IOException {
+        PrepareLog log = LOGS.get(directory.toAbsolutePath());
+        Collection<ByteBuffer> prepared = log != null && log.writer.isAlive()
+                ? log.snapshot()
+                : readPreparedFiles(directory);
+        List<Xid> xids = new ArrayList<>(prepared.size());
+        prepared.forEach(key -> xids.add(xid(key)));
+        return xids;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+            // The last checkpoint deletes the segments it stands for
+            checkpointer.shutdown();
+            checkpointer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            checkpointer.shutdown();
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        LOGS.remove(directory.toAbsolutePath(), this);
+    }
+
+    /**
+     * Returns a copy of the Xids still prepared, taken by the writer thread between two batches of records.
+     */
+    private Collection<ByteBuffer> snapshot() throws IOException {
+        Request request = new Request(SNAPSHOT, null);
+        requests.add(request);
+        try {
+            request.written.get(prepareTimeoutMillis, TimeUnit.MILLISECONDS);
+            return request.snapshot;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading the prepare log in " + directory);
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot read the prepare log in " + directory, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("The prepare log in " + directory + " was not read within " + prepareTimeoutMillis
+                    + " ms");
+        }
+    }
+
+    /**
+     * Reads the Xids still prepared from the files of the given directory, which another process may be writing.
+     */
+    private static Collection<ByteBuffer> readPreparedFiles(Path directory) throws IOException {
+        for (int attempt = 1;; attempt++) {
+            Set<ByteBuffer> prepared = new LinkedHashSet<>();
+            if (!Files.isDirectory(directory)) {
+                return prepared;
+            }
+            try {
+                replay(directory, prepared, true);
+                return prepared;
+            } catch (NoSuchFileException e) {
+                // A checkpoint deleted a segment after the manifest was read, the new manifest stands for it
+                if (attempt == READ_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Request> batch = new ArrayList<>();
+        while (running || !requests.isEmpty()) {
+            try {
+                Request request = requests.poll(100, TimeUnit.MILLISECONDS);
+                if (request == null) {
+                    continue;
+                }
+                batch.add(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            requests.drainTo(batch);
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                // Keep the writer alive for the next batches, the prepares of this one fail
+                batch.forEach(request -> request.written.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        // Left behind by a prepare racing with close
+        requests.forEach(request -> request.written.completeExceptionally(
+                new IOException("The prepare log in " + directory + " is closed")));
+    }
+
+    private void write(List<Request> batch) {
+        buffer.reset();
+        boolean sync = false;
+        List<ByteBuffer> added = new ArrayList<>();
+        for (Request request : batch) {
+            if (request.type == PREPARED) {
+                appendRecord(PREPARED, request.key);
+                if (prepared.add(request.key)) {
+                    added.add(request.key);
+                }
+                sync = true;
+            } else if (request.type == COMPLETED && prepared.remove(request.key)) {
+                appendRecord(COMPLETED, request.key);
+            }
+        }
+
+        long batchStart = activeSize;
+        IOException failure = null;
+        try {
+            flush(sync);
+        } catch (IOException e) {
+            failure = e;
+            // The prepares of the batch fail, so their Xids must not be recovered nor checkpointed as in doubt
+            prepared.removeAll(added);
+            discard(batchStart);
+        }
+        for (Request request : batch) {
+            if (request.type == SNAPSHOT) {
+                // Taken once the batch is written or undone, so that it only holds durable Xids
+                request.snapshot = new ArrayList<>(prepared);
+                request.written.complete(null);
+            } else if (failure == null) {
+                request.written.complete(null);
+            } else {
+                request.written.completeExceptionally(failure);
+            }
+        }
+
+        if (failure == null && activeSize >= segmentSize) {
+            try {
+                roll();
+            } catch (IOException e) {
+                LOG.warn("Cannot roll the prepare log in " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Cuts the records of a failed batch off the active segment, since recovery stops at the first incomplete record
+     * and would miss every record appended after them. Starts a new segment instead when the truncation fails too.
+     */
+    private void discard(long batchStart) {
+        try {
+            channel.truncate(batchStart);
+            activeSize = batchStart;
+        } catch (IOException e) {
+            LOG.warn("Cannot truncate " + segmentPath(activeId) + ", starting a new segment", e);
+            try {
+                roll();
+            } catch (IOException rollFailure) {
+                LOG.error("Cannot roll the prepare log in " + directory, rollFailure);
+            }
+        }
+    }
+
+    /**
+     * Starts a new segment, then has the checkpointer thread checkpoint the log as of the start of that segment. The
+     * writer thread only copies the Xids still prepared, which takes a few milliseconds for 100,000 in-doubt Xids.
+     */
+    private void roll() throws IOException {
+        channel.close();
+        openSegment(activeId + 1);
+        List<ByteBuffer> keys = new ArrayList<>(prepared);
+        long id = activeId;
+        long offset = activeSize;
+        checkpointer.execute(() -> {
+            try {
+                checkpoint(id, offset, keys);
+            } catch (IOException e) {
+                // The segments are kept until a later checkpoint succeeds
+                LOG.warn("Cannot checkpoint the prepare log in " + directory, e);
+            }
+        });
+    }
+
+    /**
+     * Writes the given Xids still prepared to a new manifest, which points at the given offset of the given segment,
+     * then deletes the older segments, which the manifest now stands for. The manifest is replaced atomically, so that
+     * a crash leaves either the previous checkpoint and its segments, or the new one.
+     */
+    private void checkpoint(long id, long offset, Collection<ByteBuffer> keys) throws IOException {
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+                DataOutputStream out = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(file, 65536), crc))) {
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeLong(id);
+            out.writeLong(offset);
+            out.writeInt(keys.size());
+            for (ByteBuffer key : keys) {
+                out.writeInt(key.remaining());
+                out.write(key.array());
+            }
+            out.flush();
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+            file.getFD().sync();
+        }
+        Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        for (Path segment : segments(directory).headMap(id).values()) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported by every platform, the rename is then as durable as the file system makes it
+        }
+    }
+
+    private void openSegment(long id) throws IOException {
+        channel = opener.open(segmentPath(id));
+        activeId = id;
+        activeSize = channel.size();
+    }
+
+    private static FileChannel openSegmentFile(Path segment) throws IOException {
+        return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long id) {
+        return segmentPath(directory, id);
+    }
+
+    private static Path segmentPath(Path directory, long id) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private void flush(boolean sync) throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            activeSize += channel.write(bytes);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    private void appendRecord(byte type, ByteBuffer key) {
+        byte[] xid = key.array();
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(xid);
+        try {
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(type);
+            out.writeInt(xid.length);
+            out.write(xid);
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            // Cannot happen with a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Loads the Xids still prepared in the given directory: the ones of the manifest, then the ones of the records
+     * written since its checkpoint. Returns the id of the last segment.
+     * With {@code concurrentWriter}, another process may be checkpointing the log meanwhile: a
+     * {@link NoSuchFileException} is thrown when the segment that the manifest read points at is already gone.
+     */
+    private static long replay(Path directory, Set<ByteBuffer> prepared, boolean concurrentWriter) throws IOException {
+        long[] checkpoint = readManifest(directory, prepared);
+        long checkpointId = checkpoint == null ? 0 : checkpoint[0];
+        long lastId = checkpointId;
+
+        RecordHandler handler = (type, key) -> {
+            if (type == PREPARED) {
+                prepared.add(key);
+            } else {
+                prepared.remove(key);
+            }
+        };
+        NavigableMap<Long, Path> found = segments(directory);
+        if (concurrentWriter && checkpoint != null && !found.containsKey(checkpointId)) {
+            throw new NoSuchFileException(segmentPath(directory, checkpointId).toString());
+        }
+        long activeId = found.isEmpty() ? 0 : found.lastKey();
+        for (Map.Entry<Long, Path> segment : found.entrySet()) {
+            long id = segment.getKey();
+            lastId = Math.max(lastId, id);
+            // Older segments are left behind by a crash during a checkpoint, the manifest already stands for them
+            if (id >= checkpointId) {
+                replaySegment(segment.getValue(), id == checkpointId ? checkpoint[1] : 0, id == activeId, handler);
+            }
+        }
+        return lastId;
+    }
+
+    /**
+     * Reads the manifest of the given directory, if any, into the given set, and returns the segment id and offset of
+     * its checkpoint.
+     */
+    private static long[] readManifest(Path directory, Set<ByteBuffer> prepared) throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(manifest));
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), 0, Math.max(bytes.limit() - 4, 0));
+        if (bytes.limit() < 28 || bytes.getInt(bytes.limit() - 4) != (int) crc.getValue()
+                || bytes.getInt() != MANIFEST_MAGIC) {
+            throw new IOException("Corrupted prepare log manifest " + manifest);
+        }
+        long[] checkpoint = { bytes.getLong(), bytes.getLong() };
+        int count = bytes.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] xid = new byte[bytes.getInt()];
+            bytes.get(xid);
+            prepared.add(ByteBuffer.wrap(xid));
+        }
+        return checkpoint;
+    }
+
+    private static NavigableMap<Long, Path> segments(Path directory) throws IOException {
+        NavigableMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : paths) {
+                String name = path.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())), path);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Reads the records of a segment from the given offset, up to its end or to the first incomplete or corrupted
+     * record, which a crash in the middle of a write leaves behind. At the end of the active segment, such a record
+     * may also be one that the writer has not finished writing, so it is only reported at debug level there.
+     */
+    private static void replaySegment(Path segment, long offset, boolean active, RecordHandler handler)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ);
+                InputStream in = Channels.newInputStream(channel.position(offset));
+                DataInputStream data = new DataInputStream(new BufferedInputStream(in, 65536))) {
+            while (true) {
+                byte type;
+                byte[] xid;
+                try {
+                    type = data.readByte();
+                    int length = data.readInt();
+                    if (type != PREPARED && type != COMPLETED || length < 0 || length > MAX_XID_SIZE) {
+                        ignoreEnd(segment, active);
+                        return;
+                    }
+                    xid = new byte[length];
+                    data.readFully(xid);
+                    CRC32 crc = new CRC32();
+                    crc.update(type);
+                    crc.update(xid);
+                    if (data.readInt() != (int) crc.getValue()) {
+                        ignoreEnd(segment, active);
+                        return;
+                    }
+                } catch (EOFException e) {
+                    return;
+                }
+                handler.record(type, ByteBuffer.wrap(xid));
+            }
+        }
+    }
+
+    private static void ignoreEnd(Path segment, boolean active) {
+        if (active) {
+            LOG.debug("Ignoring the incomplete end of " + segment);
+        } else {
+            LOG.warn("Ignoring the corrupted end of " + segment);
+        }
+    }
+
+    /**
+     * Serializes the given Xid, the returned buffer being usable as a map key.
+     */
+    static ByteBuffer key(Xid xid) {
+        byte[] globalTransactionId = xid.getGlobalTransactionId();
+        byte[] branchQualifier = xid.getBranchQualifier();
+        ByteBuffer key = ByteBuffer.allocate(3 * 4 + globalTransactionId.length + branchQualifier.length);
+        key.putInt(xid.getFormatId());
+        key.putInt(globalTransactionId.length);
+        key.put(globalTransactionId);
+        key.putInt(branchQualifier.length);
+        key.put(branchQualifier);
+        key.flip();
+        return key;
+    }
+
+    static Xid xid(ByteBuffer key) {
+        ByteBuffer bytes = key.duplicate();
+        int formatId = bytes.getInt();
+        byte[] globalTransactionId = new byte[bytes.getInt()];
+        bytes.get(globalTransactionId);
+        byte[] branchQualifier = new byte[bytes.getInt()];
+        bytes.get(branchQualifier);
+        return new XidImpl(formatId, globalTransactionId, branchQualifier);
+    }
+
+    private interface RecordHandler {
+        void record(byte type, ByteBuffer key);
+    }
+
+    /**
+     * Opens the channel that appends to a segment file.
+     */
+    interface SegmentOpener {
+        FileChannel open(Path segment) throws IOException;
+    }
+
+    private static final class Request {
+        private final byte type;
+        private final ByteBuffer key;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+        // The Xids still prepared, for a snapshot request
+        private List<ByteBuffer> snapshot;
+
+        Request(byte type, ByteBuffer key) {
+            this.type = type;
+            this.key = key;
+        }
+    }
+
+    private static final class XidImpl implements Xid {
+        private final int formatId;
+        private final byte[] globalTransactionId;
+        private final byte[] branchQualifier;
+
+        XidImpl(int formatId, byte[] globalTransactionId, byte[] branchQualifier) {
+            this.formatId = formatId;
+            this.globalTransactionId = globalTransactionId;
+            this.branchQualifier = branchQualifier;
+        }
+
+        @Override
+        public int getFormatId() {
+            return formatId;
+        }
+
+        @Override
+        public byte[] getGlobalTransactionId() {
+            return globalTransactionId;
+        }
+
+        @Override
+        public byte[] getBranchQualifier() {
+            return branchQualifier;
+        }
+
+        @Override
+        public String toString() {
+            return "Xid[formatId=" + formatId + ", globalTransactionId=" + Arrays.toString(globalTransactionId)
+                    + ", branchQualifier=" + Arrays.toString(branchQualifier) + "]";
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.acme.message.bridge;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.concurrent.TimeUnit;
@@ -75,7 +76,7 @@ public class MessageBridgeITCase {
 
     @Test
     @Order(3)
-    public void shouldCrashTest() {
+    public void shouldCrashTest() throws IOException {
         final String message = RandomStringUtils.randomAlphabetic(8) + " crash";
         RestAssured
                 .given()
@@ -92,6 +93,6 @@ public class MessageBridgeITCase {
         File dummyXaDir = new File(ConfigProvider.getConfig().getValue("dummy.resource.directory", String.class));
 
         assertThat(tmDir.list()).hasSize(1);
-        assertThat(dummyXaDir.list()).hasSize(1);
+        assertThat(PrepareLog.readPrepared(dummyXaDir.toPath())).hasSize(1);
     }
 }